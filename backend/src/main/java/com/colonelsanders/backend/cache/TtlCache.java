@@ -0,0 +1,214 @@
+package com.colonelsanders.backend.cache;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Small concurrent cache with a fixed time-to-live per entry and a size cap.
+ * Expired entries are dropped when they are read and by {@link #evictExpired()},
+ * which owners call on a schedule. When the cap is exceeded the oldest
+ * insertions are evicted first. Hit, miss and eviction counts are kept in
+ * {@link LongAdder}s so they cost nothing under contention.
+ */
+public class TtlCache<K, V> {
+
+    private final ConcurrentMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    // every stored entry in the order it was stored; entries removed or replaced since are skipped when trimming,
+    // so a key that was removed and stored again is not evicted by its old insertion
+    private final Queue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    // roughly the length of insertionOrder, which is too slow to count on every insertion
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    private final long ttlNanos;
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TtlCache(long ttlMillis, int maxSize) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key) {
+        V value = live(key);
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    /**
+     * Stores {@code value} unless a live entry exists.
+     *
+     * @return the live value already cached, or null if {@code value} was stored
+     */
+    public V putIfAbsent(K key, V value) {
+        V existing = storeIfAbsent(key, value);
+        (existing == null ? misses : hits).increment();
+        return existing;
+    }
+
+    public void put(K key, V value) {
+        Entry<K, V> fresh = new Entry<>(key, value, System.nanoTime() + ttlNanos);
+        entries.put(key, fresh);
+        inserted(fresh);
+    }
+
+    /**
+     * Returns the live value, loading and storing it on a miss. Counts one
+     * hit or one miss per call, also when another thread stores the key
+     * while this one is loading.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V cached = live(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        V loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        V raced = storeIfAbsent(key, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    /** Removes the entry only if it still maps to {@code value}. */
+    public boolean remove(K key, V value) {
+        Entry<K, V> entry = entries.get(key);
+        return entry != null && entry.value == value && entries.remove(key, entry);
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        insertionOrder.clear();
+        queued.set(0);
+    }
+
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> {
+            if (entry.isExpired(now)) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        });
+        purgeStale();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    // the lookups and stores below leave the hit and miss counts to their callers
+
+    private V live(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private V storeIfAbsent(K key, V value) {
+        long now = System.nanoTime();
+        Entry<K, V> fresh = new Entry<>(key, value, now + ttlNanos);
+        while (true) {
+            Entry<K, V> existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) {
+                inserted(fresh);
+                return null;
+            }
+            if (!existing.isExpired(now)) {
+                return existing.value;
+            }
+            if (entries.replace(key, existing, fresh)) {
+                inserted(fresh);
+                return null;
+            }
+        }
+    }
+
+    private void inserted(Entry<K, V> entry) {
+        insertionOrder.add(entry);
+        // replaced and invalidated entries stay queued; under churn the queue would outgrow the map between sweeps
+        if (queued.incrementAndGet() > 2 * Math.max(maxSize, 64)) {
+            purgeStale();
+        }
+        while (entries.size() > maxSize) {
+            Entry<K, V> oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            if (entries.remove(oldest.key, oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    // O(queue length), but runs at most once per maxSize insertions, so it costs O(1) per insertion
+    private void purgeStale() {
+        if (!purging.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            insertionOrder.removeIf(entry -> entries.get(entry.key) != entry);
+            queued.set(insertionOrder.size());
+        } finally {
+            purging.set(false);
+        }
+    }
+
+    // for tests
+    int queuedCount() {
+        return queued.get();
+    }
+
+    // compared by identity, so only the exact entry that was queued is ever evicted for it
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.colonelsanders.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final long asyncTimeoutMillis;
+
+    public WebConfig(@Value("${web.async.timeout-ms:3600000}") long asyncTimeoutMillis) {
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+    }
+
+    // CBOR is only used when a client sends Accept: application/cbor; the builder keeps JSON ahead of it,
+    // so requests with Accept: */* still get JSON
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withCborConverter(new JacksonCborHttpMessageConverter());
+    }
+
+    // StreamingResponseBody handlers (the CSV export, the NDJSON bid stream) run as async requests, which the
+    // container otherwise ends after 30 seconds however much is left to write. SSE emitters set their own timeout.
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMillis);
+    }
+}
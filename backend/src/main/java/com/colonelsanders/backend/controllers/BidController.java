@@ -1,49 +1,110 @@
 package com.colonelsanders.backend.controllers;
 
 import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.dto.BidBatchItemDto;
+import com.colonelsanders.backend.dto.BidBatchResultDto;
 import com.colonelsanders.backend.dto.BidDto;
+import com.colonelsanders.backend.dto.BidFilterDto;
 import com.colonelsanders.backend.dto.BidRequestDto;
+import com.colonelsanders.backend.dto.CursorPageDto;
 import com.colonelsanders.backend.mappers.BidMapper;
+import com.colonelsanders.backend.services.BidIdempotencyCache;
+import com.colonelsanders.backend.services.BidRateLimiter;
+import com.colonelsanders.backend.services.BidSequencer;
 import com.colonelsanders.backend.services.BidService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 public class BidController {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final BidService bidService;
+    private final BidSequencer bidSequencer;
+    private final BidRateLimiter bidRateLimiter;
+    private final BidIdempotencyCache bidIdempotencyCache;
     private final BidMapper bidMapper;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
 
-    public BidController(BidService bidService, BidMapper bidMapper) {
+    public BidController(BidService bidService, BidSequencer bidSequencer, BidRateLimiter bidRateLimiter,
+                         BidIdempotencyCache bidIdempotencyCache, BidMapper bidMapper, ObjectMapper objectMapper,
+                         @Value("${bids.batch.max-size:100}") int maxBatchSize) {
         this.bidService = bidService;
+        this.bidSequencer = bidSequencer;
+        this.bidRateLimiter = bidRateLimiter;
+        this.bidIdempotencyCache = bidIdempotencyCache;
         this.bidMapper = bidMapper;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @PostMapping(path = "/api/bids")
-    public ResponseEntity<?> createBid(@RequestBody BidRequestDto request) {
+    public ResponseEntity<?> createBid(@RequestBody BidRequestDto request,
+                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        // Get current authenticated user
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return new ResponseEntity<>(
+                    java.util.Map.of("error", "User must be authenticated to create a bid"),
+                    HttpStatus.UNAUTHORIZED);
+        }
+
+        String userEmail = authentication.getName();
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return placeBid(request, userEmail);
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return new ResponseEntity<>(
+                    java.util.Map.of("error", "Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"),
+                    HttpStatus.BAD_REQUEST);
+        }
+        // replays are answered before the rate limiter, so a retry does not cost the user a token
+        return bidIdempotencyCache.execute(userEmail, idempotencyKey, request, () -> placeBid(request, userEmail));
+    }
+
+    private ResponseEntity<?> placeBid(BidRequestDto request, String userEmail) {
         try {
-            // Get current authenticated user
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                return new ResponseEntity<>(
-                        java.util.Map.of("error", "User must be authenticated to create a bid"),
-                        HttpStatus.UNAUTHORIZED);
+            ResponseEntity<?> throttled = checkRateLimit(userEmail, 1);
+            if (throttled != null) {
+                return throttled;
             }
 
-            String userEmail = authentication.getName();
-            Bid createdBid = bidService.createBid(request, userEmail);
+            Bid createdBid = bidSequencer.isEnabled()
+                    ? bidSequencer.submit(request, userEmail)
+                    : bidService.createBid(request, userEmail);
             BidDto bidDto = bidMapper.mapTo(createdBid);
             return new ResponseEntity<>(bidDto, HttpStatus.CREATED);
         } catch (IllegalArgumentException ex) {
             return new ResponseEntity<>(
                     java.util.Map.of("error", ex.getMessage()),
                     HttpStatus.BAD_REQUEST);
+        } catch (RejectedExecutionException ex) {
+            return new ResponseEntity<>(
+                    java.util.Map.of("error", ex.getMessage()),
+                    HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception ex) {
             return new ResponseEntity<>(
                     java.util.Map.of("error", "Failed to create bid: " + ex.getMessage()),
@@ -51,13 +112,108 @@ public class BidController {
         }
     }
 
-    @GetMapping(path = "/api/bids")
-    public ResponseEntity<?> getAllBids() {
-        Iterable<Bid> bids = bidService.getAllBids();
-        java.util.List<BidDto> dtos = new java.util.ArrayList<>();
-        for (Bid b : bids) {
-            dtos.add(bidMapper.mapTo(b));
+    @PostMapping(path = "/api/bids/batch")
+    public ResponseEntity<?> createBids(@RequestBody List<BidRequestDto> requests) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return new ResponseEntity<>(
+                    java.util.Map.of("error", "User must be authenticated to create a bid"),
+                    HttpStatus.UNAUTHORIZED);
+        }
+        // each bid costs a token, so a batch larger than the burst could never be let through
+        int maxSize = Math.min(maxBatchSize, bidRateLimiter.maxPermits());
+        if (requests == null || requests.isEmpty() || requests.size() > maxSize) {
+            return new ResponseEntity<>(
+                    java.util.Map.of("error", "A batch must contain between 1 and " + maxSize + " bids"),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        String userEmail = authentication.getName();
+        ResponseEntity<?> throttled = checkRateLimit(userEmail, requests.size());
+        if (throttled != null) {
+            return throttled;
+        }
+
+        try {
+            List<BidBatchItemDto> items = new ArrayList<>(requests.size());
+            int accepted = 0;
+            int rejected = 0;
+            int failed = 0;
+            List<BidService.BatchItem> placed = bidSequencer.isEnabled()
+                    ? bidSequencer.submitAll(requests, userEmail)
+                    : bidService.placeBids(requests, userEmail);
+            for (BidService.BatchItem item : placed) {
+                switch (item.status()) {
+                    case ACCEPTED -> accepted++;
+                    case REJECTED -> rejected++;
+                    case FAILED -> failed++;
+                }
+                items.add(BidBatchItemDto.builder()
+                        .productId(item.productId())
+                        .status(item.status().name())
+                        .bid(item.bid() != null ? bidMapper.mapTo(item.bid()) : null)
+                        .error(item.error())
+                        .build());
+            }
+            BidBatchResultDto result = BidBatchResultDto.builder()
+                    .accepted(accepted)
+                    .rejected(rejected)
+                    .failed(failed)
+                    .items(items)
+                    .build();
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (IllegalArgumentException ex) {
+            return new ResponseEntity<>(
+                    java.util.Map.of("error", ex.getMessage()),
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(path = "/api/bids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> getBids(BidFilterDto filter,
+                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        long afterId;
+        try {
+            afterId = cursor == null || cursor.isBlank() ? 0 : Long.parseLong(cursor);
+        } catch (NumberFormatException ex) {
+            return new ResponseEntity<>(java.util.Map.of("error", "Invalid cursor"), HttpStatus.BAD_REQUEST);
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(
+                    java.util.Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        List<BidDto> items = bidService.getBidPage(filter, afterId, limit);
+        String nextCursor = items.size() < limit ? null : String.valueOf(items.get(items.size() - 1).getId());
+        return ResponseEntity.ok(CursorPageDto.<BidDto>builder().items(items).nextCursor(nextCursor).build());
+    }
+
+    // one JSON object per line, written while the rows are read from the database cursor
+    @GetMapping(path = "/api/bids", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBids(BidFilterDto filter) {
+        StreamingResponseBody body = out -> bidService.streamBids(filter, bid -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(bid));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // null when the request may go ahead
+    private ResponseEntity<?> checkRateLimit(String userEmail, int bids) {
+        long retryAfterNanos = bidRateLimiter.tryAcquire(userEmail, bids);
+        if (retryAfterNanos <= 0) {
+            return null;
         }
-        return ResponseEntity.ok(dtos);
+        // Retry-After is in whole seconds, round up so the retry is not rejected again
+        long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos - 1) + 1;
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(java.util.Map.of("error", "Too many bids, please slow down"));
     }
 }
@@ -0,0 +1,148 @@
+package com.colonelsanders.backend.controllers;
+
+import com.colonelsanders.backend.dto.ExportJobDto;
+import com.colonelsanders.backend.dto.ExportRequestDto;
+import com.colonelsanders.backend.services.ExportJobs;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+public class ExportController {
+
+    // request attributes of Tomcat's sendfile support: the connector writes the file itself after the handler returns
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ExportJobs exportJobs;
+
+    public ExportController(ExportJobs exportJobs) {
+        this.exportJobs = exportJobs;
+    }
+
+    @PostMapping(path = "/api/exports")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startExport(@RequestBody ExportRequestDto exportRequest) {
+        ExportJobs.Type type;
+        try {
+            type = ExportJobs.Type.parse(exportRequest.getType());
+        } catch (IllegalArgumentException ex) {
+            return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+        try {
+            ExportJobDto job = exportJobs.start(type);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/exports/" + job.getId()))
+                    .body(job);
+        } catch (IllegalStateException ex) {
+            return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
+    @GetMapping(path = "/api/exports/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ExportJobDto> getExport(@PathVariable("id") String id) {
+        return exportJobs.get(id)
+                .map(ResponseEntity::ok)
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // the gzip file as is, a single byte range of it when asked, so an interrupted download can resume
+    @GetMapping(path = "/api/exports/{id}/download")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> downloadExport(@PathVariable("id") String id,
+                                            HttpServletRequest request,
+                                            HttpServletResponse response) throws IOException {
+        if (exportJobs.get(id).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        Optional<Path> found = exportJobs.file(id);
+        if (found.isEmpty()) {
+            return new ResponseEntity<>(Map.of("error", "Export is not finished"), HttpStatus.CONFLICT);
+        }
+
+        Path file = found.get();
+        long length = Files.size(file);
+        // the file never changes once the export is done, and a job id is never reused
+        String etag = "\"" + id + "-" + length + "\"";
+        long start = 0;
+        long end = length;
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        boolean partial = false;
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException ex) {
+                // a malformed Range header is ignored, the whole file is sent
+                ranges = List.of();
+            }
+            // several ranges are answered with the whole file, which HTTP allows
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length) + 1;
+                } catch (IllegalArgumentException ex) {
+                    start = length;
+                }
+                if (start >= length || start >= end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return new ResponseEntity<>(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                }
+                partial = true;
+            }
+        }
+
+        response.setStatus(partial ? HttpStatus.PARTIAL_CONTENT.value() : HttpStatus.OK.value());
+        response.setContentType("application/gzip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (partial) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        response.setContentLengthLong(end - start);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // zero copy: the kernel moves the bytes from the page cache to the socket
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                while (position < end) {
+                    position += channel.transferTo(position, end - position, out);
+                }
+            }
+        }
+        // the response is complete, nothing left for Spring to write
+        return null;
+    }
+}
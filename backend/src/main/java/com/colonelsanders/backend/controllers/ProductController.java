@@ -1,65 +1,279 @@
 package com.colonelsanders.backend.controllers;
 
-import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.AppUser;
 import com.colonelsanders.backend.database.models.Product;
-import com.colonelsanders.backend.database.repositories.BidRepository;
+import com.colonelsanders.backend.database.repositories.AppUserRepository;
+import com.colonelsanders.backend.database.repositories.ProductCursor;
+import com.colonelsanders.backend.database.repositories.ProductExportRow;
 import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.database.repositories.ProductSort;
+import com.colonelsanders.backend.database.repositories.ProductWatermark;
+import com.colonelsanders.backend.dto.BidStatsDto;
+import com.colonelsanders.backend.dto.CursorPageDto;
+import com.colonelsanders.backend.dto.ProductChangesDto;
 import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.dto.ProductFacetsDto;
+import com.colonelsanders.backend.dto.ProductFilterDto;
+import com.colonelsanders.backend.events.ProductChangedEvent;
 import com.colonelsanders.backend.dto.ProductImportResultDto;
+import com.colonelsanders.backend.dto.ProductSummaryDto;
 import com.colonelsanders.backend.mappers.ProductMapper;
+import com.colonelsanders.backend.services.BidStatistics;
+import com.colonelsanders.backend.services.BidStreamHub;
+import com.colonelsanders.backend.services.CatalogVersion;
+import com.colonelsanders.backend.services.ProductCsvExporter;
+import com.colonelsanders.backend.services.ProductFacets;
 import com.colonelsanders.backend.services.ProductImageStorageService;
 import com.colonelsanders.backend.services.ProductImportService;
+import com.colonelsanders.backend.services.ProductReadCache;
+import com.colonelsanders.backend.services.ProductSearchIndex;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 @RestController
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    // changes younger than this are held back, so a transaction that stamped updatedAt earlier but
+    // commits later does not end up behind a watermark that was already handed out. Best effort:
+    // updatedAt is stamped by the application, not in commit order, so a transaction that takes
+    // longer than this to commit after stamping can still be missed until the product changes again
+    private static final long CHANGES_SETTLE_MILLIS = 2_000;
+
     private final ProductImportService productImportService;
     private final ProductRepository productRepository;
     private final ProductImageStorageService productImageStorageService;
-    private final BidRepository bidRepository;
+    private final AppUserRepository appUserRepository;
     private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BidStreamHub bidStreamHub;
+    private final BidStatistics bidStatistics;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductReadCache productReadCache;
+    private final CatalogVersion catalogVersion;
+    private final ProductFacets productFacets;
+    private final ProductCsvExporter productCsvExporter;
 
     public ProductController(ProductImportService productImportService,
                                    ProductRepository productRepository,
                                    ProductImageStorageService productImageStorageService,
-                                   BidRepository bidRepository,
-                                   ProductMapper productMapper) {
+                                   AppUserRepository appUserRepository,
+                                   ProductMapper productMapper,
+                                   ApplicationEventPublisher eventPublisher,
+                                   BidStreamHub bidStreamHub,
+                                   BidStatistics bidStatistics,
+                                   ProductSearchIndex productSearchIndex,
+                                   ProductReadCache productReadCache,
+                                   CatalogVersion catalogVersion,
+                                   ProductFacets productFacets,
+                                   ProductCsvExporter productCsvExporter) {
         this.productImportService = productImportService;
         this.productRepository = productRepository;
         this.productImageStorageService = productImageStorageService;
-        this.bidRepository = bidRepository;
+        this.appUserRepository = appUserRepository;
         this.productMapper = productMapper;
+        this.eventPublisher = eventPublisher;
+        this.bidStreamHub = bidStreamHub;
+        this.bidStatistics = bidStatistics;
+        this.productSearchIndex = productSearchIndex;
+        this.productReadCache = productReadCache;
+        this.catalogVersion = catalogVersion;
+        this.productFacets = productFacets;
+        this.productCsvExporter = productCsvExporter;
     }
 
     @GetMapping(path = "/api/products")
-    public List<ProductDto> findAll() {
-        return StreamSupport.stream(productRepository.findAll().spliterator(), false)
-                .map(productMapper::mapTo)
+    public ResponseEntity<?> findAll(ProductFilterDto filter,
+                                     @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                     @RequestParam(value = "direction", defaultValue = "asc") String direction,
+                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                     @RequestParam(value = "imageUrls", defaultValue = "false") boolean imageUrls,
+                                     ServletWebRequest request) {
+        // answered before any parsing or repository work; sets the ETag on the 200 as well.
+        // Presigned URLs expire, so a response that embeds them is never answered with a 304.
+        String representation = representation(request);
+        if (!imageUrls && request.checkNotModified(catalogVersion.productsETag(representation))) {
+            return null;
+        }
+        PageParams page;
+        try {
+            page = PageParams.parse(sort, direction, cursor, limit);
+        } catch (IllegalArgumentException ex) {
+            return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+
+        String pageKey = filter.getTypeId() + "|" + filter.getClosed() + "|" + page.sort() + "|" + page.descending()
+                + "|" + (page.after() == null ? "" : cursor) + "|" + limit;
+        CursorPageDto<ProductDto> result = productReadCache.getPage(pageKey, () -> {
+            List<ProductDto> items = productRepository.findPage(
+                    filter, page.sort(), page.descending(), page.after(), limit);
+            String nextCursor = items.size() < limit ? null
+                    : ProductCursor.after(items.get(items.size() - 1), page.sort(), page.descending()).encode();
+            return CursorPageDto.<ProductDto>builder().items(items).nextCursor(nextCursor).build();
+        });
+        if (imageUrls) {
+            result = CursorPageDto.<ProductDto>builder()
+                    .items(withImageUrls(result.getItems()))
+                    .nextCursor(result.getNextCursor())
+                    .build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // same paging and filters as findAll, with the top bid of each product from its denormalized bid columns
+    @GetMapping(path = "/api/products/summary")
+    public ResponseEntity<?> findSummaries(ProductFilterDto filter,
+                                           @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                           @RequestParam(value = "direction", defaultValue = "asc") String direction,
+                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                           @RequestParam(value = "imageUrls", defaultValue = "false") boolean imageUrls,
+                                           ServletWebRequest request) {
+        // the top bids change with every accepted bid, so the tag has to follow bids too
+        String representation = representation(request);
+        if (!imageUrls && request.checkNotModified(catalogVersion.productsAndBidsETag(representation))) {
+            return null;
+        }
+        PageParams page;
+        try {
+            page = PageParams.parse(sort, direction, cursor, limit);
+        } catch (IllegalArgumentException ex) {
+            return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+
+        List<ProductSummaryDto> items = productRepository.findSummaryPage(
+                filter, page.sort(), page.descending(), page.after(), limit);
+        String nextCursor = items.size() < limit ? null
+                : ProductCursor.after(items.get(items.size() - 1), page.sort(), page.descending()).encode();
+        if (imageUrls) {
+            items = withImageUrls(items, ProductSummaryDto::getImageObjectKey,
+                    (summary, url) -> summary.toBuilder().imageUrl(url).build());
+        }
+        return ResponseEntity.ok(CursorPageDto.<ProductSummaryDto>builder().items(items).nextCursor(nextCursor).build());
+    }
+
+    @GetMapping(path = "/api/products/changes")
+    public ResponseEntity<?> findChanges(@RequestParam(value = "since", required = false) String since,
+                                         @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        ProductWatermark watermark;
+        try {
+            watermark = since == null || since.isBlank() ? null : ProductWatermark.decode(since);
+        } catch (IllegalArgumentException ex) {
+            return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(
+                    Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        Timestamp until = Timestamp.from(Instant.now().minusMillis(CHANGES_SETTLE_MILLIS));
+        List<ProductDto> items = productRepository.findChanges(watermark, until, limit);
+        String next = items.isEmpty()
+                ? (watermark == null ? null : watermark.encode())
+                : ProductWatermark.after(items.get(items.size() - 1)).encode();
+        return ResponseEntity.ok(ProductChangesDto.builder()
+                .items(items)
+                .watermark(next)
+                .hasMore(items.size() == limit)
+                .build());
+    }
+
+    @GetMapping(path = "/api/products/search")
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                    @RequestParam(value = "imageUrls", defaultValue = "false") boolean imageUrls) {
+        if (query.isBlank()) {
+            return new ResponseEntity<>(Map.of("error", "q is required"), HttpStatus.BAD_REQUEST);
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            return new ResponseEntity<>(
+                    Map.of("error", "limit must be between 1 and " + MAX_SEARCH_RESULTS),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        List<Long> ids = productSearchIndex.search(query, limit);
+        if (ids.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        // primary key lookups for the matches only, returned in the index's order
+        Map<Long, ProductDto> products = new HashMap<>();
+        productRepository.findDtosById(ids).forEach(product -> products.put(product.getId(), product));
+        List<ProductDto> results = ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return ResponseEntity.ok(imageUrls ? withImageUrls(results) : results);
+    }
+
+    @GetMapping(path = "/api/products/facets")
+    public ResponseEntity<ProductFacetsDto> getFacets() {
+        return ResponseEntity.ok(productFacets.get());
     }
 
     @GetMapping(path = "/api/products/{id}")
-    public ResponseEntity<ProductDto> findById(@PathVariable("id") Long id) {
-        return productRepository.findById(id)
-                .map(product -> new ResponseEntity<>(productMapper.mapTo(product), HttpStatus.OK))
+    public ResponseEntity<ProductDto> findById(@PathVariable("id") Long id,
+                                               @RequestParam(value = "imageUrls", defaultValue = "false") boolean imageUrls,
+                                               ServletWebRequest request) {
+        String representation = representation(request);
+        if (!imageUrls && request.checkNotModified(catalogVersion.productsETag(representation))) {
+            return null;
+        }
+        return productReadCache.getProduct(id, () -> productRepository.findDtosById(List.of(id)).stream().findFirst())
+                .map(product -> imageUrls ? withImageUrls(List.of(product)).get(0) : product)
+                .map(product -> new ResponseEntity<>(product, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping(path = "/api/products/{id}/bids/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamBids(@PathVariable("id") Long id) {
+        Optional<Product> foundProduct = productRepository.findById(id);
+        if (foundProduct.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (Boolean.TRUE.equals(foundProduct.get().getClosed())) {
+            return new ResponseEntity<>(Map.of("error", "Auction is already closed"), HttpStatus.BAD_REQUEST);
+        }
+
+        SseEmitter emitter = bidStreamHub.subscribe(id);
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/api/products/{id}/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BidStatsDto> getStats(@PathVariable("id") Long id) {
+        return bidStatistics.get(id)
+                .map(stats -> new ResponseEntity<>(stats, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -116,7 +330,9 @@ public class ProductController {
         Product product = foundProduct.get();
         String objectKey = productImageStorageService.uploadProductImage(product, file);
         product.setImageObjectKey(objectKey);
+        product.setUpdatedAt(Timestamp.from(Instant.now()));
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(product));
 
         String imageUrl = productImageStorageService.getPresignedUrl(objectKey);
         return new ResponseEntity<>(
@@ -163,28 +379,25 @@ public class ProductController {
         Product product = foundProduct.get();
 
         product.setClosed(true);
+        product.setUpdatedAt(Timestamp.from(Instant.now()));
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(product));
 
         return new ResponseEntity<>(productMapper.mapTo(product), HttpStatus.OK);
     }
 
+    // rows are written while they are read from the database cursor, nothing is collected first
     @GetMapping(path = "/api/products/export", produces = "text/csv")
-    public ResponseEntity<?> exportAllProductsCsv() {
-        List<Product> products = StreamSupport
-                .stream(productRepository.findAll().spliterator(), false)
-                .collect(Collectors.toList());
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("type, model, serial, description, starting price, email, final price\n");
-        for (Product product : products) {
-            appendProductRow(sb, product);
+    public ResponseEntity<StreamingResponseBody> exportAllProductsCsv(WebRequest request) {
+        // the export includes the highest bids, so its tag moves with bids too
+        if (request.checkNotModified(catalogVersion.productsAndBidsETag("csv"))) {
+            return null;
         }
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.csv\"");
-        headers.setContentType(MediaType.parseMediaType("text/csv"));
-
-        return new ResponseEntity<>(sb.toString(), headers, HttpStatus.OK);
+        StreamingResponseBody body = productCsvExporter::exportAll;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(body);
     }
 
     @GetMapping(path = "/api/products/{id}/export", produces = "text/csv")
@@ -196,7 +409,9 @@ public class ProductController {
         }
 
         Product product = foundProduct.get();
-        String csv = buildProductCsv(id, product);
+        String bidderEmail = product.getHighestBidderId() == null ? null
+                : appUserRepository.findById(product.getHighestBidderId()).map(AppUser::getEmail).orElse(null);
+        String csv = productCsvExporter.export(ProductExportRow.of(product, bidderEmail));
 
         HttpHeaders headers = new HttpHeaders();
         headers.set(HttpHeaders.CONTENT_DISPOSITION,
@@ -206,42 +421,66 @@ public class ProductController {
         return new ResponseEntity<>(csv, headers, HttpStatus.OK);
     }
 
-    private String buildProductCsv(Long id, Product product) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("type, model, serial, description, starting price, email, final price\n");
-        appendProductRow(sb, product);
-        return sb.toString();
+    /**
+     * The format the message converters will pick for this request's Accept
+     * header: JSON unless CBOR is preferred. Also marks the response as
+     * varying by Accept, since both are served from the same URL.
+     */
+    private static String representation(ServletWebRequest request) {
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return "json";
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            // quality first, then specificity, the order content negotiation tries them in
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (IllegalArgumentException ex) {
+            return "json";
+        }
+        for (MediaType type : accepted) {
+            // JSON is registered ahead of CBOR, so it wins for wildcards
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "json";
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+        }
+        return "json";
     }
 
-    private void appendProductRow(StringBuilder sb, Product product) {
-        Optional<Bid> highestBid = bidRepository.findTopByProductIdOrderByPriceDesc(product.getId());
-
-        String typeName = product.getProductType() != null ? product.getProductType().getName() : "";
-        String startingPrice = product.getStartingPrice() != null ? product.getStartingPrice().toPlainString() : "";
-        String bidderEmail = "";
-        String bidPrice = "";
-
-        if (highestBid.isPresent()) {
-            bidderEmail = highestBid.get().getAppUser().getEmail();
-            bidPrice = highestBid.get().getPrice().toPlainString();
-        }
+    private List<ProductDto> withImageUrls(List<ProductDto> products) {
+        return withImageUrls(products, ProductDto::getImageObjectKey,
+                (product, url) -> product.toBuilder().imageUrl(url).build());
+    }
 
-        sb.append(escapeCsv(typeName)).append(", ")
-          .append(escapeCsv(product.getModel())).append(", ")
-          .append(escapeCsv(product.getSerial())).append(", ")
-          .append(escapeCsv(product.getDescription())).append(", ")
-          .append(startingPrice).append(", ")
-          .append(escapeCsv(bidderEmail)).append(", ")
-          .append(bidPrice).append("\n");
+    // copies, so the URLs never end up in the product read cache; all keys are presigned in one pass
+    private <T> List<T> withImageUrls(List<T> products, Function<T, String> objectKey, BiFunction<T, String, T> withUrl) {
+        Map<String, String> urls = productImageStorageService.getPresignedUrls(
+                products.stream().map(objectKey).collect(Collectors.toList()));
+        return products.stream()
+                .map(product -> withUrl.apply(product, urls.get(objectKey.apply(product))))
+                .collect(Collectors.toList());
     }
 
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "";
-        }
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+    /** Sort, direction, cursor and limit of a product listing, validated together. */
+    private record PageParams(ProductSort sort, boolean descending, ProductCursor after) {
+
+        static PageParams parse(String sort, String direction, String cursor, int limit) {
+            ProductSort productSort = ProductSort.fromProperty(sort);
+            boolean descending = "desc".equalsIgnoreCase(direction);
+            if (!descending && !"asc".equalsIgnoreCase(direction)) {
+                throw new IllegalArgumentException("direction must be asc or desc");
+            }
+            ProductCursor after = cursor == null || cursor.isBlank() ? null
+                    : ProductCursor.decode(cursor, productSort, descending);
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            return new PageParams(productSort, descending, after);
         }
-        return value;
     }
 }
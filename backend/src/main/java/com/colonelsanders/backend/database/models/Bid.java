@@ -9,6 +9,12 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 
 @Entity
+@Table(indexes = {
+        // keyset pagination on id, optionally narrowed to a product or a user
+        @Index(name = "idx_bid_product_id", columnList = "product_id, id"),
+        @Index(name = "idx_bid_app_user_id", columnList = "app_user_id, id"),
+        @Index(name = "idx_bid_created_at", columnList = "created_at")
+})
 public class Bid {
     @Id @GeneratedValue(strategy = GenerationType.AUTO)
     @Getter @Setter
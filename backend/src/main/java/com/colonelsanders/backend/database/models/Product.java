@@ -3,11 +3,20 @@ package com.colonelsanders.backend.database.models;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 
 @Entity
+@Table(indexes = {
+        // keyset pagination of the product listing for each sort, with id as the tie-breaker
+        @Index(name = "idx_product_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_product_starting_price", columnList = "starting_price, id"),
+        @Index(name = "idx_product_type_id", columnList = "product_type_id, id"),
+        // the change feed reads in (updated_at, id) order past the client's watermark
+        @Index(name = "idx_product_updated_at", columnList = "updated_at, id")
+})
 public class Product {
     @Id @GeneratedValue(strategy = GenerationType.AUTO)
     @Getter @Setter
@@ -36,13 +45,35 @@ public class Product {
     private String imageObjectKey;
 
     //buyer_id?
+    @Column(nullable = false)
     @Getter @Setter
     private Timestamp createdAt;
+    // set on every write, the change feed reads in (updated_at, id) order
+    @Column(nullable = false)
     @Getter @Setter
     private Timestamp updatedAt;
 
+    // when the auction closes on its own; null means it is only closed manually
+    @Getter @Setter
+    private Timestamp actionEndDate;
+
     // starting price for auctions
-    @Column(precision = 10, scale = 2)
+    @Column(precision = 10, scale = 2, nullable = false)
     @Getter @Setter
     private BigDecimal startingPrice;
+
+    // current top bid and bid count, kept up to date by BidStore through the compare-and-set updates in ProductRepository.
+    // Never written from the entity: saving a product loaded before a bid must not put the old values back.
+    @Column(precision = 10, scale = 2, insertable = false, updatable = false)
+    @Getter @Setter
+    private BigDecimal highestBidPrice;
+
+    @Column(insertable = false, updatable = false)
+    @Getter @Setter
+    private Long highestBidderId;
+
+    @Column(insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Getter @Setter
+    private Integer bidCount;
 }
@@ -0,0 +1,23 @@
+package com.colonelsanders.backend.database.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+
+/**
+ * A one-off data migration that has been applied, such as a backfill of a
+ * column added after rows existed. ddl-auto creates the columns, this records
+ * which fixes to the existing rows have already run.
+ */
+@Entity
+public class SchemaMigration {
+    @Id
+    @Getter @Setter
+    private String name;
+
+    @Column(nullable = false)
+    @Getter @Setter
+    private Timestamp appliedAt;
+}
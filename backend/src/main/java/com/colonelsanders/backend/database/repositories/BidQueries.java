@@ -0,0 +1,21 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.dto.BidDto;
+import com.colonelsanders.backend.dto.BidFilterDto;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Filtered bid listings, projected straight into {@link BidDto}. Only the
+ * filters that are set end up in the SQL, so each query can use the
+ * matching index on {@code bid}.
+ */
+public interface BidQueries {
+
+    /** Up to {@code limit} bids with an id greater than {@code afterId}, in id order. */
+    List<BidDto> findPage(BidFilterDto filter, long afterId, int limit);
+
+    /** Every matching bid in id order, read through a database cursor. Must be consumed inside a transaction. */
+    Stream<BidDto> streamAll(BidFilterDto filter);
+}
@@ -0,0 +1,89 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.database.models.AppUser;
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.dto.BidDto;
+import com.colonelsanders.backend.dto.BidFilterDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// picked up by Spring Data as the implementation of the BidQueries fragment of BidRepository
+class BidQueriesImpl implements BidQueries {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    BidQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<BidDto> findPage(BidFilterDto filter, long afterId, int limit) {
+        return query(filter, afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<BidDto> streamAll(BidFilterDto filter) {
+        return query(filter, null)
+                .setHint("org.hibernate.fetchSize", STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private TypedQuery<BidDto> query(BidFilterDto filter, Long afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BidDto> query = cb.createQuery(BidDto.class);
+        Root<Bid> bid = query.from(Bid.class);
+        Join<Bid, AppUser> user = bid.join("appUser");
+        // the product id is the foreign key column, so no join to product is needed
+        Path<Long> productId = bid.get("product").get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(bid.get("id"), afterId));
+        }
+        if (filter.getProductId() != null) {
+            predicates.add(cb.equal(productId, filter.getProductId()));
+        }
+        if (filter.getUserId() != null) {
+            predicates.add(cb.equal(user.get("id"), filter.getUserId()));
+        }
+        if (filter.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(bid.<BigDecimal>get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(bid.<BigDecimal>get("price"), filter.getMaxPrice()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(bid.<Timestamp>get("createdAt"), Timestamp.from(filter.getFrom())));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(bid.<Timestamp>get("createdAt"), Timestamp.from(filter.getTo())));
+        }
+
+        query.select(cb.construct(BidDto.class,
+                        bid.get("id"),
+                        productId,
+                        user.get("id"),
+                        user.get("email"),
+                        bid.get("price"),
+                        bid.get("createdAt")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(bid.get("id")));
+        return entityManager.createQuery(query);
+    }
+}
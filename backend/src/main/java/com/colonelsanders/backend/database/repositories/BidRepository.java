@@ -1,11 +1,38 @@
 package com.colonelsanders.backend.database.repositories;
 
 import com.colonelsanders.backend.database.models.Bid;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BidRepository extends CrudRepository<Bid, Long> {
+public interface BidRepository extends CrudRepository<Bid, Long>, BidQueries {
     Optional<Bid> findTopByProductIdOrderByPriceDesc(Long productId);
     Optional<Bid> findByProductIdAndAppUserId(Long productId, Long appUserId);
+
+    @Query("select b.product.id as productId, b.appUser.id as appUserId, b.price as price "
+            + "from Bid b where b.product.id = :productId order by b.id")
+    List<BidderPrice> findBidderPricesByProductId(@Param("productId") Long productId);
+
+    @Query("select b.product.id as productId, b.appUser.id as appUserId, b.price as price "
+            + "from Bid b where b.product.id in :productIds order by b.id")
+    List<BidderPrice> findBidderPricesByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // read once at startup to rebuild the bid statistics
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select b.product.id as productId, b.appUser.id as appUserId, b.price as price from Bid b")
+    Stream<BidderPrice> streamAllBidderPrices();
+
+    interface BidderPrice {
+        Long getProductId();
+        Long getAppUserId();
+        BigDecimal getPrice();
+    }
 }
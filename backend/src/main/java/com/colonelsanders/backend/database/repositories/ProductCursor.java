@@ -0,0 +1,54 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.dto.ProductSummaryDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last product of a page: its sort key and id, so the
+ * next page can seek straight past it instead of counting rows. Clients see
+ * it as an opaque base64 token that also records the sort it belongs to.
+ */
+public record ProductCursor(ProductSort sort, boolean descending, Comparable<?> key, long id) {
+
+    public static ProductCursor after(ProductDto product, ProductSort sort, boolean descending) {
+        return new ProductCursor(sort, descending, sort.keyOf(product), product.getId());
+    }
+
+    public static ProductCursor after(ProductSummaryDto product, ProductSort sort, boolean descending) {
+        return new ProductCursor(sort, descending, sort.keyOf(product), product.getId());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or was issued for a different sort
+     */
+    public static ProductCursor decode(String token, ProductSort sort, boolean descending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", -1);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+        if (parts.length != 4 || !parts[0].equals(sort.property()) || !parts[1].equals(direction(descending))) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            Comparable<?> key = sort.parse(parts[2]);
+            return new ProductCursor(sort, descending, key, Long.parseLong(parts[3]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
+    public String encode() {
+        String raw = sort.property() + '\n' + direction(descending) + '\n'
+                + (key == null ? "" : sort.format(key)) + '\n' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String direction(boolean descending) {
+        return descending ? "desc" : "asc";
+    }
+}
@@ -0,0 +1,25 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.database.models.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of the product CSV export: the product columns, its type name
+ * and the email of the current highest bidder, read in a single joined
+ * query by {@link ProductQueries#streamExportRows}.
+ */
+public record ProductExportRow(String typeName, String model, String serial, String description,
+                               BigDecimal startingPrice, String bidderEmail, BigDecimal highestBidPrice) {
+
+    public static ProductExportRow of(Product product, String bidderEmail) {
+        return new ProductExportRow(
+                product.getProductType() != null ? product.getProductType().getName() : null,
+                product.getModel(),
+                product.getSerial(),
+                product.getDescription(),
+                product.getStartingPrice(),
+                bidderEmail,
+                product.getHighestBidPrice());
+    }
+}
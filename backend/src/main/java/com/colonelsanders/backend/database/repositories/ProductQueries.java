@@ -0,0 +1,49 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.dto.ProductFilterDto;
+import com.colonelsanders.backend.dto.ProductSummaryDto;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Product reads projected straight into {@link ProductDto} with a join to
+ * the product type, so no entities are loaded and nothing is mapped.
+ * Listings are keyset-paginated: each page seeks past the previous page's
+ * last row on the sort key and id, so the cost of a page does not grow with
+ * how far into the catalog it is.
+ */
+public interface ProductQueries {
+
+    /**
+     * Up to {@code limit} products after {@code after} (or from the start when null).
+     * Null sort keys order below every value.
+     */
+    List<ProductDto> findPage(ProductFilterDto filter, ProductSort sort, boolean descending, ProductCursor after, int limit);
+
+    /**
+     * Same page as {@link #findPage}, with each product's current top bid
+     * read from the bid columns on the product row, so no bid is queried.
+     */
+    List<ProductSummaryDto> findSummaryPage(ProductFilterDto filter, ProductSort sort, boolean descending,
+                                            ProductCursor after, int limit);
+
+    /**
+     * Up to {@code limit} products changed after {@code since} (or all of them when null)
+     * and before {@code until}, in (updatedAt, id) order.
+     */
+    List<ProductDto> findChanges(ProductWatermark since, Timestamp until, int limit);
+
+    /** The products with the given ids that exist, in no particular order. */
+    List<ProductDto> findDtosById(Collection<Long> ids);
+
+    /**
+     * Every product in id order with its type name and highest bidder's email,
+     * read through a database cursor. The caller closes the stream and has to
+     * hold a transaction open while reading it.
+     */
+    Stream<ProductExportRow> streamExportRows();
+}
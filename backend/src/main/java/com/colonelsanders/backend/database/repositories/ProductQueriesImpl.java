@@ -0,0 +1,203 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.database.models.AppUser;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.models.ProductType;
+import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.dto.ProductFilterDto;
+import com.colonelsanders.backend.dto.ProductSummaryDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+// picked up by Spring Data as the implementation of the ProductQueries fragment of ProductRepository
+class ProductQueriesImpl implements ProductQueries {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    ProductQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ProductDto> findPage(ProductFilterDto filter, ProductSort sort, boolean descending,
+                                     ProductCursor after, int limit) {
+        return findPage(ProductDto.class, ProductQueriesImpl::toDto, filter, sort, descending, after, limit);
+    }
+
+    @Override
+    public List<ProductSummaryDto> findSummaryPage(ProductFilterDto filter, ProductSort sort, boolean descending,
+                                                   ProductCursor after, int limit) {
+        return findPage(ProductSummaryDto.class, ProductQueriesImpl::toSummary, filter, sort, descending, after, limit);
+    }
+
+    private <T> List<T> findPage(Class<T> resultType,
+                                 BiFunction<CriteriaBuilder, Root<Product>, CompoundSelection<T>> selection,
+                                 ProductFilterDto filter, ProductSort sort, boolean descending,
+                                 ProductCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(resultType);
+        Root<Product> product = query.from(Product.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getTypeId() != null) {
+            // the type id is the foreign key column, so this does not depend on the join
+            predicates.add(cb.equal(product.get("productType").get("id"), filter.getTypeId()));
+        }
+        if (filter.getClosed() != null) {
+            predicates.add(cb.equal(product.get("closed"), filter.getClosed()));
+        }
+        if (after != null) {
+            predicates.add(seek(cb, product, sort, descending, after));
+        }
+
+        Path<Long> id = product.get("id");
+        List<Order> orders = new ArrayList<>();
+        if (sort != ProductSort.ID) {
+            Path<?> key = product.get(sort.property());
+            orders.add(descending ? cb.desc(key) : cb.asc(key));
+        }
+        orders.add(descending ? cb.desc(id) : cb.asc(id));
+
+        query.select(selection.apply(cb, product))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(orders);
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<ProductDto> findChanges(ProductWatermark since, Timestamp until, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDto> query = cb.createQuery(ProductDto.class);
+        Root<Product> product = query.from(Product.class);
+        Path<Timestamp> updatedAt = product.get("updatedAt");
+        Path<Long> id = product.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.lessThan(updatedAt, until));
+        if (since != null) {
+            // (updated_at, id) > (since): the leading range on its own keeps the index scan bounded
+            predicates.add(cb.greaterThanOrEqualTo(updatedAt, since.updatedAt()));
+            predicates.add(cb.or(
+                    cb.greaterThan(updatedAt, since.updatedAt()),
+                    cb.greaterThan(id, since.id())));
+        }
+
+        query.select(toDto(cb, product))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(updatedAt), cb.asc(id));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<ProductDto> findDtosById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDto> query = cb.createQuery(ProductDto.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(toDto(cb, product))
+                .where(product.get("id").in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public Stream<ProductExportRow> streamExportRows() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductExportRow> query = cb.createQuery(ProductExportRow.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, ProductType> type = product.join("productType", JoinType.LEFT);
+        // highestBidderId is a plain column, not an association, so the bidder is joined on it explicitly
+        Join<Product, AppUser> bidder = product.join(AppUser.class, JoinType.LEFT);
+        bidder.on(cb.equal(bidder.get("id"), product.get("highestBidderId")));
+
+        query.select(cb.construct(ProductExportRow.class,
+                        type.get("name"),
+                        product.get("model"),
+                        product.get("serial"),
+                        product.get("description"),
+                        product.get("startingPrice"),
+                        bidder.get("email"),
+                        product.get("highestBidPrice")))
+                .orderBy(cb.asc(product.get("id")));
+        return entityManager.createQuery(query)
+                .setHint("org.hibernate.fetchSize", STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    // one row per product with the type columns from a left join; Hibernate calls the flat ProductDto constructor
+    private static CompoundSelection<ProductDto> toDto(CriteriaBuilder cb, Root<Product> product) {
+        Join<Product, ProductType> type = product.join("productType", JoinType.LEFT);
+        return cb.construct(ProductDto.class,
+                product.get("id"),
+                type.get("id"),
+                type.get("name"),
+                product.get("model"),
+                product.get("description"),
+                product.get("serial"),
+                product.get("closed"),
+                product.get("imageObjectKey"),
+                product.get("startingPrice"),
+                product.get("actionEndDate"),
+                product.get("createdAt"),
+                product.get("updatedAt"));
+    }
+
+    // the product card: no serial or description, plus the top bid columns that BidStore keeps on the row
+    private static CompoundSelection<ProductSummaryDto> toSummary(CriteriaBuilder cb, Root<Product> product) {
+        Join<Product, ProductType> type = product.join("productType", JoinType.LEFT);
+        return cb.construct(ProductSummaryDto.class,
+                product.get("id"),
+                type.get("id"),
+                type.get("name"),
+                product.get("model"),
+                product.get("closed"),
+                product.get("imageObjectKey"),
+                product.get("startingPrice"),
+                product.get("actionEndDate"),
+                product.get("createdAt"),
+                product.get("highestBidPrice"),
+                product.get("highestBidderId"),
+                product.get("bidCount"));
+    }
+
+    // rows strictly after the cursor in (key, id) order: (key, id) > (value, id) as a bounded range on the
+    // leading key plus the tie-break, so the (key, id) index is scanned from the cursor on
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seek(CriteriaBuilder cb, Root<Product> product, ProductSort sort,
+                                  boolean descending, ProductCursor after) {
+        Path<Long> id = product.get("id");
+        Predicate idAfter = descending ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id());
+        if (sort == ProductSort.ID) {
+            return idAfter;
+        }
+
+        Path<Comparable> key = product.get(sort.property());
+        Comparable value = after.key();
+        if (descending) {
+            return cb.and(cb.lessThanOrEqualTo(key, value), cb.or(cb.lessThan(key, value), idAfter));
+        }
+        return cb.and(cb.greaterThanOrEqualTo(key, value), cb.or(cb.greaterThan(key, value), idAfter));
+    }
+}
@@ -1,10 +1,130 @@
 package com.colonelsanders.backend.database.repositories;
 
 import com.colonelsanders.backend.database.models.Product;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends CrudRepository<Product, Long> {
+public interface ProductRepository extends CrudRepository<Product, Long>, ProductQueries {
 	Optional<Product> findBySerial(String serial);
+
+	// compare-and-set: only a strictly higher price replaces the current top bid
+	@Modifying
+	@Query("update Product p set p.highestBidPrice = :price, p.highestBidderId = :bidderId "
+			+ "where p.id = :productId and (p.highestBidPrice is null or p.highestBidPrice < :price)")
+	int raiseHighestBid(@Param("productId") Long productId,
+						@Param("price") BigDecimal price,
+						@Param("bidderId") Long bidderId);
+
+	@Modifying
+	@Query("update Product p set p.bidCount = coalesce(p.bidCount, 0) + :count where p.id = :productId")
+	int incrementBidCount(@Param("productId") Long productId, @Param("count") int count);
+
+	// fills the bid columns for rows written before they existed
+	@Transactional
+	@Modifying
+	@Query(nativeQuery = true, value = "update product p set "
+			+ "bid_count = (select count(*) from bid b where b.product_id = p.id), "
+			+ "highest_bid_price = (select max(b.price) from bid b where b.product_id = p.id), "
+			+ "highest_bidder_id = (select b.app_user_id from bid b where b.product_id = p.id "
+			+ "order by b.price desc, b.id asc limit 1) "
+			+ "where p.bid_count is null")
+	int backfillBidState();
+
+	// ddl-auto only adds the default when it creates the column, so schemas from before it get it here
+	@Transactional
+	@Modifying
+	@Query(nativeQuery = true, value = "alter table product alter column bid_count set default 0")
+	void setBidCountDefault();
+
+	// rows from before updatedAt was stamped on every write; they take their creation time, or sort first
+	@Transactional
+	@Modifying
+	@Query("update Product p set p.updatedAt = coalesce(p.createdAt, :fallback) where p.updatedAt is null")
+	int backfillUpdatedAt(@Param("fallback") Timestamp fallback);
+
+	@Transactional
+	@Modifying
+	@Query("update Product p set p.createdAt = coalesce(p.updatedAt, :fallback) where p.createdAt is null")
+	int backfillCreatedAt(@Param("fallback") Timestamp fallback);
+
+	@Transactional
+	@Modifying
+	@Query("update Product p set p.startingPrice = 0 where p.startingPrice is null")
+	int backfillStartingPrice();
+
+	// ddl-auto never tightens an existing column, so schemas from before the constraints get them here
+	@Transactional
+	@Modifying
+	@Query(nativeQuery = true, value = "alter table product alter column updated_at set not null")
+	void requireUpdatedAt();
+
+	@Transactional
+	@Modifying
+	@Query(nativeQuery = true, value = "alter table product alter column created_at set not null")
+	void requireCreatedAt();
+
+	@Transactional
+	@Modifying
+	@Query(nativeQuery = true, value = "alter table product alter column starting_price set not null")
+	void requireStartingPrice();
+
+	@Query("select p.id as id, p.actionEndDate as actionEndDate from Product p "
+			+ "where p.closed = false and p.actionEndDate is not null")
+	List<EndDate> findOpenEndDates();
+
+	// only rows that are still open are touched, so a manual close in between is not overwritten
+	@Transactional
+	@Modifying
+	@Query("update Product p set p.closed = true, p.updatedAt = :now where p.id in :ids and p.closed = false")
+	int closeAll(@Param("ids") Collection<Long> ids, @Param("now") Timestamp now);
+
+	@Query("select p.id as id, p.startingPrice as startingPrice from Product p")
+	List<StartingPrice> findStartingPrices();
+
+	// read once at startup to build the search index
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+	@Query("select p.id as id, p.model as model, p.description as description, p.serial as serial, "
+			+ "t.name as typeName from Product p left join p.productType t order by p.id")
+	Stream<SearchText> streamSearchText();
+
+	// read once at startup to seed the facet counters; the type id is the foreign key, so there is no join
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+	@Query("select p.id as id, p.productType.id as typeId, p.closed as closed from Product p")
+	Stream<FacetKey> streamFacetKeys();
+
+	interface SearchText {
+		Long getId();
+		String getModel();
+		String getDescription();
+		String getSerial();
+		String getTypeName();
+	}
+
+	interface FacetKey {
+		Long getId();
+		Long getTypeId();
+		Boolean getClosed();
+	}
+
+	interface StartingPrice {
+		Long getId();
+		BigDecimal getStartingPrice();
+	}
+
+	interface EndDate {
+		Long getId();
+		Timestamp getActionEndDate();
+	}
 }
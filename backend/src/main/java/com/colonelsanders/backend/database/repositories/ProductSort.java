@@ -0,0 +1,68 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.dto.ProductSummaryDto;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/** Orders a product listing can be sorted in. Ties are always broken by id. */
+public enum ProductSort {
+    ID("id"),
+    CREATED_AT("createdAt"),
+    STARTING_PRICE("startingPrice");
+
+    private final String property;
+
+    ProductSort(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public static ProductSort fromProperty(String property) {
+        for (ProductSort sort : values()) {
+            if (sort.property.equals(property)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("sort must be one of id, createdAt, startingPrice");
+    }
+
+    /** The sort key of {@code product}, or null when sorting by id alone. */
+    Comparable<?> keyOf(ProductDto product) {
+        return keyOf(product.getCreatedAt(), product.getStartingPrice());
+    }
+
+    Comparable<?> keyOf(ProductSummaryDto product) {
+        return keyOf(product.getCreatedAt(), product.getStartingPrice());
+    }
+
+    private Comparable<?> keyOf(Timestamp createdAt, BigDecimal startingPrice) {
+        return switch (this) {
+            case ID -> null;
+            case CREATED_AT -> createdAt;
+            case STARTING_PRICE -> startingPrice;
+        };
+    }
+
+    String format(Comparable<?> key) {
+        return switch (this) {
+            case ID -> "";
+            case CREATED_AT -> ((Timestamp) key).toInstant().toString();
+            case STARTING_PRICE -> ((BigDecimal) key).toPlainString();
+        };
+    }
+
+    // every product has a sort key, so only the id sort accepts an empty one
+    Comparable<?> parse(String key) {
+        return switch (this) {
+            case ID -> null;
+            case CREATED_AT -> Timestamp.from(Instant.parse(key));
+            case STARTING_PRICE -> new BigDecimal(key);
+        };
+    }
+}
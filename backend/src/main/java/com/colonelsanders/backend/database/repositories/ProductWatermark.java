@@ -0,0 +1,41 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.dto.ProductDto;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * How far a client has read the product change feed: the {@code updatedAt}
+ * and id of the last change it received. Products are read in that order,
+ * so the next sync seeks straight past it. Clients see an opaque base64
+ * token.
+ */
+public record ProductWatermark(Timestamp updatedAt, long id) {
+
+    public static ProductWatermark after(ProductDto product) {
+        return new ProductWatermark(product.getUpdatedAt(), product.getId());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ProductWatermark decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", -1);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid watermark");
+            }
+            return new ProductWatermark(Timestamp.from(Instant.parse(parts[0])), Long.parseLong(parts[1]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid watermark", ex);
+        }
+    }
+
+    public String encode() {
+        String raw = updatedAt.toInstant().toString() + '\n' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
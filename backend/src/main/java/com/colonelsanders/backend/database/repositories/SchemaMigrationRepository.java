@@ -0,0 +1,7 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.database.models.SchemaMigration;
+import org.springframework.data.repository.CrudRepository;
+
+public interface SchemaMigrationRepository extends CrudRepository<SchemaMigration, String> {
+}
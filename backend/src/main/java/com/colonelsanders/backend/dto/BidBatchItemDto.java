@@ -0,0 +1,18 @@
+package com.colonelsanders.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BidBatchItemDto {
+    private Long productId;
+    // ACCEPTED, REJECTED (validation failed) or FAILED (could not be saved, safe to retry)
+    private String status;
+    private BidDto bid;
+    private String error;
+}
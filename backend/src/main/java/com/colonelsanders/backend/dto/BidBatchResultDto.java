@@ -0,0 +1,19 @@
+package com.colonelsanders.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BidBatchResultDto {
+    private int accepted;
+    private int rejected;
+    private int failed;
+    private List<BidBatchItemDto> items;
+}
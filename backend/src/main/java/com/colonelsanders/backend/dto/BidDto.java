@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 
 @Data
 @NoArgsConstructor
@@ -17,4 +18,5 @@ public class BidDto {
     private Long appUserId;
     private String appUserEmail;
     private BigDecimal price;
+    private Timestamp createdAt;
 }
@@ -0,0 +1,29 @@
+package com.colonelsanders.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Optional filters for listing bids, bound from query parameters.
+ * Null fields are ignored; {@code from} is inclusive and {@code to} exclusive.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BidFilterDto {
+    private Long productId;
+    private Long userId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+}
@@ -0,0 +1,22 @@
+package com.colonelsanders.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BidStatsDto {
+    private Long productId;
+    private long count;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal mean;
+    private List<PriceBucketDto> histogram;
+}
@@ -0,0 +1,30 @@
+package com.colonelsanders.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExportJobDto {
+    private String id;
+    private String type;
+    // QUEUED, RUNNING, DONE or FAILED
+    private String status;
+    private long rows;
+    // how many rows the export is expected to have, counted when it starts
+    private Long totalRows;
+    // size of the gzip file, once the export is done
+    private Long sizeBytes;
+    private Timestamp createdAt;
+    private Timestamp finishedAt;
+    private String error;
+    private String downloadUrl;
+}
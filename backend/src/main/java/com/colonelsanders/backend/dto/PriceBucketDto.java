@@ -0,0 +1,20 @@
+package com.colonelsanders.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceBucketDto {
+    // inclusive lower bound; the first bucket starts at 0
+    private BigDecimal from;
+    // exclusive upper bound; null for the last, open-ended bucket
+    private BigDecimal to;
+    private long count;
+}
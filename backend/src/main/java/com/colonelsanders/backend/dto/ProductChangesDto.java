@@ -0,0 +1,23 @@
+package com.colonelsanders.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Products changed since a watermark. Pass {@code watermark} back as
+ * {@code since} on the next sync; {@code hasMore} means another request
+ * would return more changes right away.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChangesDto {
+    private List<ProductDto> items;
+    private String watermark;
+    private boolean hasMore;
+}
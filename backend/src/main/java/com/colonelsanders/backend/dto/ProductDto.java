@@ -1,16 +1,18 @@
 package com.colonelsanders.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ProductDto {
     private Long id;
     private ProductTypeDto productType;
@@ -20,4 +22,20 @@ public class ProductDto {
     private Boolean closed;
     private String imageObjectKey;
     private BigDecimal startingPrice;
+    private Timestamp actionEndDate;
+    private Timestamp createdAt;
+    private Timestamp updatedAt;
+
+    // presigned image URL, only filled in when the request asks for it with imageUrls=true
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String imageUrl;
+
+    // flat form used by the constructor projection in ProductQueriesImpl; a product without a type has null type columns
+    public ProductDto(Long id, Long productTypeId, String productTypeName, String model, String description,
+                      String serial, Boolean closed, String imageObjectKey, BigDecimal startingPrice,
+                      Timestamp actionEndDate, Timestamp createdAt, Timestamp updatedAt) {
+        this(id, productTypeId == null ? null : new ProductTypeDto(productTypeId, productTypeName), model,
+                description, serial, closed, imageObjectKey, startingPrice, actionEndDate, createdAt, updatedAt,
+                null);
+    }
 }
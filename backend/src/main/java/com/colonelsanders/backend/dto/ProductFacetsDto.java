@@ -0,0 +1,19 @@
+package com.colonelsanders.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsDto {
+    private long total;
+    private long open;
+    private long closed;
+    private List<ProductTypeFacetDto> types;
+}
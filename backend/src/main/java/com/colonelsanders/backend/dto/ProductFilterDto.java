@@ -0,0 +1,19 @@
+package com.colonelsanders.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional filters for listing products, bound from query parameters.
+ * Null fields are ignored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFilterDto {
+    private Long typeId;
+    private Boolean closed;
+}
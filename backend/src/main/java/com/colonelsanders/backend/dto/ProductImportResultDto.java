@@ -16,5 +16,7 @@ public class ProductImportResultDto {
     private int created;
     private int updated;
     private int failed;
+    // every row commits on its own: true when some rows were imported and stay imported although others failed
+    private boolean partial;
     private List<String> errors;
 }
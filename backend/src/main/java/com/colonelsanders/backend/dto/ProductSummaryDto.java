@@ -0,0 +1,42 @@
+package com.colonelsanders.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/** What a product card shows: the product, its current top bid and, on request, its image URL. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ProductSummaryDto {
+    private Long id;
+    private ProductTypeDto productType;
+    private String model;
+    private Boolean closed;
+    private String imageObjectKey;
+    private BigDecimal startingPrice;
+    private Timestamp actionEndDate;
+    private Timestamp createdAt;
+    // null while there are no bids
+    private BigDecimal highestBidPrice;
+    private Long highestBidderId;
+    private int bidCount;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String imageUrl;
+
+    // flat form used by the constructor projection in ProductQueriesImpl; bid_count is null on rows not backfilled yet
+    public ProductSummaryDto(Long id, Long productTypeId, String productTypeName, String model, Boolean closed,
+                             String imageObjectKey, BigDecimal startingPrice, Timestamp actionEndDate,
+                             Timestamp createdAt, BigDecimal highestBidPrice, Long highestBidderId, Integer bidCount) {
+        this(id, productTypeId == null ? null : new ProductTypeDto(productTypeId, productTypeName), model, closed,
+                imageObjectKey, startingPrice, actionEndDate, createdAt, highestBidPrice, highestBidderId,
+                bidCount == null ? 0 : bidCount, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.colonelsanders.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductTypeFacetDto {
+    // null for products without a type
+    private Long typeId;
+    private String typeName;
+    private long open;
+    private long closed;
+}
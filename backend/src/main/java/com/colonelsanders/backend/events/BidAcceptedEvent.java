@@ -0,0 +1,9 @@
+package com.colonelsanders.backend.events;
+
+import com.colonelsanders.backend.database.models.Bid;
+
+/**
+ * Published once an accepted bid has been made durable (database, write-behind
+ * batch or bid journal). The bid id is null when it came through the journal.
+ */
+public record BidAcceptedEvent(Bid bid) {}
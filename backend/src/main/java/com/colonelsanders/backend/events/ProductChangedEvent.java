@@ -0,0 +1,9 @@
+package com.colonelsanders.backend.events;
+
+import com.colonelsanders.backend.database.models.Product;
+
+/**
+ * Published whenever a product is created or modified (import, close, image upload).
+ * Listeners keep their in-memory views of the catalog in sync from it.
+ */
+public record ProductChangedEvent(Product product) {}
@@ -0,0 +1,273 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.cache.TtlCache;
+import com.colonelsanders.backend.database.models.AppUser;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.repositories.AppUserRepository;
+import com.colonelsanders.backend.database.repositories.BidRepository;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory order book of the auctions that have seen bids since startup.
+ * An auction is loaded from the database the first time it is touched and
+ * is then kept up to date by {@link BidService} and by product change events,
+ * so validating a bid does not need any queries. Every auction has its own
+ * lock, so bids on different products never contend. Closed auctions are
+ * dropped by {@link #evictClosed()}; a late bid on one reloads it and is
+ * rejected. Bidders are cached for a limited time, in a bounded cache.
+ */
+@Component
+public class AuctionBook {
+
+    private final ProductRepository productRepository;
+    private final BidRepository bidRepository;
+    private final AppUserRepository appUserRepository;
+
+    private final ConcurrentMap<Long, Auction> auctions = new ConcurrentHashMap<>();
+    private final TtlCache<String, AppUser> users;
+
+    // bumped on every product change so a load racing with an update is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuctionBook(ProductRepository productRepository,
+                       BidRepository bidRepository,
+                       AppUserRepository appUserRepository,
+                       @Value("${bids.book.user-ttl-ms:300000}") long userTtlMillis,
+                       @Value("${bids.book.max-users:100000}") int maxUsers) {
+        this.productRepository = productRepository;
+        this.bidRepository = bidRepository;
+        this.appUserRepository = appUserRepository;
+        this.users = new TtlCache<>(userTtlMillis, maxUsers);
+    }
+
+    public Optional<Auction> find(Long productId) {
+        if (productId == null) {
+            return Optional.empty();
+        }
+
+        Auction auction = auctions.get(productId);
+        if (auction != null) {
+            return Optional.of(auction);
+        }
+
+        long loadedAt = generation.get();
+        Optional<Product> product = productRepository.findById(productId);
+        if (product.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Auction loaded = load(product.get());
+        Auction existing = auctions.putIfAbsent(productId, loaded);
+        if (existing != null) {
+            return Optional.of(existing);
+        }
+        if (generation.get() != loadedAt) {
+            auctions.remove(productId, loaded);
+        }
+        return Optional.of(loaded);
+    }
+
+    /**
+     * Looks up several auctions at once. The ones not in memory yet are
+     * loaded with one query for the products and one for their bids.
+     * Ids of products that do not exist are missing from the result.
+     */
+    public Map<Long, Auction> findAll(Collection<Long> productIds) {
+        Map<Long, Auction> found = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long productId : productIds) {
+            if (productId == null) {
+                continue;
+            }
+            Auction auction = auctions.get(productId);
+            if (auction != null) {
+                found.put(productId, auction);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long loadedAt = generation.get();
+        Map<Long, Auction> loaded = new HashMap<>();
+        for (Product product : productRepository.findAllById(missing)) {
+            loaded.put(product.getId(), new Auction(product));
+        }
+        if (loaded.isEmpty()) {
+            return found;
+        }
+        for (BidRepository.BidderPrice bid : bidRepository.findBidderPricesByProductIdIn(loaded.keySet())) {
+            loaded.get(bid.getProductId()).add(bid.getAppUserId(), bid.getPrice());
+        }
+
+        for (Map.Entry<Long, Auction> entry : loaded.entrySet()) {
+            Auction existing = auctions.putIfAbsent(entry.getKey(), entry.getValue());
+            if (existing != null) {
+                found.put(entry.getKey(), existing);
+                continue;
+            }
+            if (generation.get() != loadedAt) {
+                auctions.remove(entry.getKey(), entry.getValue());
+            }
+            found.put(entry.getKey(), entry.getValue());
+        }
+        return found;
+    }
+
+    public Optional<AppUser> findUser(String email) {
+        return Optional.ofNullable(users.computeIfAbsent(email, key -> appUserRepository.findByEmail(key).orElse(null)));
+    }
+
+    /**
+     * Records {@code userId} as a bidder on the auction, failing if the auction
+     * is closed or the user already has a bid on it.
+     */
+    public void reserve(Auction auction, Long userId, BigDecimal price) {
+        auction.lock.lock();
+        try {
+            if (auction.isClosed()) {
+                throw new IllegalArgumentException("Cannot bid on a closed product");
+            }
+            if (auction.bids.containsKey(userId)) {
+                throw new IllegalArgumentException("You have already placed a bid on this product");
+            }
+            auction.add(userId, price);
+        } finally {
+            auction.lock.unlock();
+        }
+    }
+
+    /**
+     * Takes back a reservation whose bid could not be persisted, so the user
+     * can bid again, and recomputes the top bid from the ones that remain.
+     * Only that reservation is undone: with the journal or write-behind,
+     * other accepted bids may not be in the database yet, so reloading the
+     * auction from it would lose them.
+     */
+    public void release(Auction auction, Long userId) {
+        auction.lock.lock();
+        try {
+            if (auction.bids.remove(userId) != null) {
+                auction.recomputeTop();
+            }
+        } finally {
+            auction.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops auctions that are closed, by a close event or by their end date,
+     * and bidders past their time to live.
+     */
+    @Scheduled(fixedDelayString = "${bids.book.evict-interval-ms:60000}")
+    public void evictClosed() {
+        auctions.values().removeIf(Auction::isClosed);
+        users.evictExpired();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        generation.incrementAndGet();
+
+        Auction auction = auctions.get(product.getId());
+        if (auction == null) {
+            return;
+        }
+
+        auction.lock.lock();
+        try {
+            auction.product = product;
+            auction.closed = Boolean.TRUE.equals(product.getClosed());
+            auction.startingPrice = product.getStartingPrice();
+            auction.endsAtMillis = endsAtMillis(product);
+        } finally {
+            auction.lock.unlock();
+        }
+    }
+
+    private Auction load(Product product) {
+        Auction auction = new Auction(product);
+        for (BidRepository.BidderPrice bid : bidRepository.findBidderPricesByProductId(product.getId())) {
+            auction.add(bid.getAppUserId(), bid.getPrice());
+        }
+        return auction;
+    }
+
+    private static long endsAtMillis(Product product) {
+        return product.getActionEndDate() == null ? Long.MAX_VALUE : product.getActionEndDate().getTime();
+    }
+
+    public static final class Auction {
+        private final ReentrantLock lock = new ReentrantLock();
+        // each bidder's price, in the order the bids were accepted
+        private final Map<Long, BigDecimal> bids = new LinkedHashMap<>();
+
+        private volatile Product product;
+        private volatile boolean closed;
+        private volatile BigDecimal startingPrice;
+        private volatile long endsAtMillis;
+        private volatile BigDecimal topPrice;
+        private volatile Long topBidderId;
+
+        private Auction(Product product) {
+            this.product = product;
+            this.closed = Boolean.TRUE.equals(product.getClosed());
+            this.startingPrice = product.getStartingPrice();
+            this.endsAtMillis = endsAtMillis(product);
+        }
+
+        private void add(Long userId, BigDecimal price) {
+            bids.put(userId, price);
+            if (isAbove(price, topPrice)) {
+                topPrice = price;
+                topBidderId = userId;
+            }
+        }
+
+        private void recomputeTop() {
+            BigDecimal price = null;
+            Long bidderId = null;
+            for (Map.Entry<Long, BigDecimal> bid : bids.entrySet()) {
+                if (isAbove(bid.getValue(), price)) {
+                    price = bid.getValue();
+                    bidderId = bid.getKey();
+                }
+            }
+            topPrice = price;
+            topBidderId = bidderId;
+        }
+
+        // equal prices keep the earlier bid on top
+        private static boolean isAbove(BigDecimal price, BigDecimal top) {
+            return price != null && (top == null || price.compareTo(top) > 0);
+        }
+
+        public Product getProduct() { return product; }
+        // past the end date counts as closed even before the close scheduler has written it
+        public boolean isClosed() { return closed || System.currentTimeMillis() >= endsAtMillis; }
+        public BigDecimal getStartingPrice() { return startingPrice; }
+        public BigDecimal getTopPrice() { return topPrice; }
+        public Long getTopBidderId() { return topBidderId; }
+    }
+}
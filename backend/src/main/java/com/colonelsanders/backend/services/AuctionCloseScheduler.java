@@ -0,0 +1,198 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Closes auctions when their {@code actionEndDate} passes. Upcoming end dates
+ * are loaded once at startup and kept in a {@link TimingWheel}; after that the
+ * schedule follows {@link ProductChangedEvent}s, so the database is only hit
+ * when something actually closes. All auctions that expire in the same tick
+ * are closed with a single update.
+ */
+@Component
+public class AuctionCloseScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(AuctionCloseScheduler.class);
+
+    // keeps the IN list of the close update at a size every database accepts
+    private static final int CLOSE_CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+
+    private final DelayQueue<TimingWheel.Bucket> delayQueue = new DelayQueue<>();
+    private final TimingWheel wheel;
+    private final ReentrantLock wheelLock = new ReentrantLock();
+
+    // latest entry per product; entries replaced by a reschedule are skipped when their bucket fires
+    private final ConcurrentMap<Long, TimingWheel.Entry> scheduled = new ConcurrentHashMap<>();
+
+    private final Thread reaper;
+    private volatile boolean running;
+
+    public AuctionCloseScheduler(
+            ProductRepository productRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${auctions.closer.enabled:true}") boolean enabled,
+            @Value("${auctions.closer.tick-ms:1}") long tickMs,
+            @Value("${auctions.closer.wheel-size:512}") int wheelSize
+    ) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.wheel = new TimingWheel(Math.max(1, tickMs), Math.max(2, wheelSize), System.currentTimeMillis(), delayQueue);
+        this.reaper = new Thread(this::run, "auction-closer");
+        this.reaper.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        List<TimingWheel.Entry> entries = new ArrayList<>();
+        for (ProductRepository.EndDate endDate : productRepository.findOpenEndDates()) {
+            entries.add(new TimingWheel.Entry(endDate.getId(), endDate.getActionEndDate().getTime()));
+        }
+        scheduleAll(entries);
+        log.info("Scheduled {} auctions for closing", entries.size());
+
+        running = true;
+        reaper.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        reaper.interrupt();
+        reaper.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public boolean isScheduled(Long productId) {
+        return scheduled.containsKey(productId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        Product product = event.product();
+        if (Boolean.TRUE.equals(product.getClosed()) || product.getActionEndDate() == null) {
+            scheduled.remove(product.getId());
+            return;
+        }
+
+        TimingWheel.Entry current = scheduled.get(product.getId());
+        long endsAt = product.getActionEndDate().getTime();
+        if (current == null || current.expirationMs() != endsAt) {
+            scheduleAll(List.of(new TimingWheel.Entry(product.getId(), endsAt)));
+        }
+    }
+
+    private void scheduleAll(List<TimingWheel.Entry> entries) {
+        List<TimingWheel.Entry> overdue = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            for (TimingWheel.Entry entry : entries) {
+                scheduled.put(entry.key(), entry);
+                if (!wheel.add(entry)) {
+                    overdue.add(entry);
+                }
+            }
+        } finally {
+            wheelLock.unlock();
+        }
+
+        // closed by the reaper thread, never on the caller's (possibly transactional) thread
+        if (!overdue.isEmpty()) {
+            delayQueue.offer(TimingWheel.Bucket.due(overdue, System.currentTimeMillis()));
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                TimingWheel.Bucket bucket = delayQueue.take();
+                List<Long> due = new ArrayList<>();
+                wheelLock.lock();
+                try {
+                    // drain every bucket that is due so auctions ending together close in one batch
+                    while (bucket != null) {
+                        wheel.advanceClock(bucket.getExpiration());
+                        bucket.flush(entry -> {
+                            if (!entry.equals(scheduled.get(entry.key()))) {
+                                return;
+                            }
+                            if (!wheel.add(entry) && scheduled.remove(entry.key(), entry)) {
+                                due.add(entry.key());
+                            }
+                        });
+                        bucket = delayQueue.poll();
+                    }
+                } finally {
+                    wheelLock.unlock();
+                }
+                close(due);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Failed to close expired auctions", ex);
+            }
+        }
+    }
+
+    private void close(List<Long> productIds) {
+        for (int from = 0; from < productIds.size(); from += CLOSE_CHUNK_SIZE) {
+            List<Long> chunk = productIds.subList(from, Math.min(productIds.size(), from + CLOSE_CHUNK_SIZE));
+            try {
+                int closed = productRepository.closeAll(chunk, new Timestamp(System.currentTimeMillis()));
+                if (closed == 0) {
+                    continue;
+                }
+                for (Product product : productRepository.findAllById(chunk)) {
+                    if (Boolean.TRUE.equals(product.getClosed())) {
+                        eventPublisher.publishEvent(new ProductChangedEvent(product));
+                    }
+                }
+            } catch (RuntimeException ex) {
+                // put the chunk back so it is retried a second later rather than left open
+                log.error("Failed to close {} auctions, retrying", chunk.size(), ex);
+                List<TimingWheel.Entry> retry = new ArrayList<>();
+                long retryAt = System.currentTimeMillis() + 1000;
+                for (Long id : chunk) {
+                    if (!scheduled.containsKey(id)) {
+                        retry.add(new TimingWheel.Entry(id, retryAt));
+                    }
+                }
+                scheduleAll(retry);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.cache.TtlCache;
+import com.colonelsanders.backend.dto.BidRequestDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response to each {@code Idempotency-Key} on {@code POST /api/bids}
+ * so a retried request is answered from memory. Keys are scoped to the user.
+ * The first request for a key stores a pending future before it runs, so a
+ * duplicate that arrives while it is still in flight waits for the same
+ * response instead of racing it into {@link BidService}.
+ */
+@Component
+public class BidIdempotencyCache {
+
+    private final TtlCache<String, Attempt> attempts;
+    private final long waitMillis;
+    // counted here rather than as cache hits, so a key reused for a different bid is not a replay
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public BidIdempotencyCache(
+            MeterRegistry meterRegistry,
+            @Value("${bids.idempotency.ttl-ms:600000}") long ttlMillis,
+            @Value("${bids.idempotency.max-entries:100000}") int maxEntries,
+            @Value("${bids.idempotency.wait-ms:10000}") long waitMillis
+    ) {
+        this.attempts = new TtlCache<>(ttlMillis, maxEntries);
+        this.waitMillis = waitMillis;
+
+        FunctionCounter.builder("bids.idempotency.replays", replays, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("bids.idempotency.conflicts", conflicts, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("bids.idempotency.evictions", attempts, TtlCache::evictionCount).register(meterRegistry);
+        Gauge.builder("bids.idempotency.entries", attempts, TtlCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} the first time {@code key} is seen for the user and
+     * returns the stored response for every later request with the same key.
+     * Responses that are worth retrying (429 and 5xx) are not kept.
+     */
+    public ResponseEntity<?> execute(String userEmail, String key, BidRequestDto request,
+                                     Supplier<ResponseEntity<?>> action) {
+        String scopedKey = userEmail + '\n' + key;
+        Attempt attempt = new Attempt(request, new CompletableFuture<>());
+        Attempt existing = attempts.putIfAbsent(scopedKey, attempt);
+        if (existing != null) {
+            return replay(existing, request);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            attempts.remove(scopedKey, attempt);
+            attempt.response().completeExceptionally(ex);
+            throw ex;
+        }
+
+        if (!isFinal(response)) {
+            attempts.remove(scopedKey, attempt);
+        }
+        attempt.response().complete(response);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${bids.idempotency.evict-interval-ms:60000}")
+    public void evictExpired() {
+        attempts.evictExpired();
+    }
+
+    private ResponseEntity<?> replay(Attempt existing, BidRequestDto request) {
+        if (!sameRequest(existing.request(), request)) {
+            conflicts.increment();
+            return new ResponseEntity<>(
+                    Map.of("error", "Idempotency-Key was already used with a different request"),
+                    HttpStatus.UNPROCESSABLE_CONTENT);
+        }
+
+        replays.increment();
+        try {
+            return existing.response().get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ex) {
+            // the first attempt is still running, or failed and may be retried with the same key
+            return new ResponseEntity<>(
+                    Map.of("error", "A request with this Idempotency-Key is still being processed"),
+                    HttpStatus.CONFLICT);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request", ex);
+        }
+    }
+
+    // a retry may send 10 where the first request sent 10.00, which is the same bid
+    private static boolean sameRequest(BidRequestDto first, BidRequestDto retry) {
+        if (!Objects.equals(first.getProductId(), retry.getProductId())) {
+            return false;
+        }
+        if (first.getPrice() == null || retry.getPrice() == null) {
+            return first.getPrice() == retry.getPrice();
+        }
+        return first.getPrice().compareTo(retry.getPrice()) == 0;
+    }
+
+    private static boolean isFinal(ResponseEntity<?> response) {
+        return !response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)
+                && !response.getStatusCode().is5xxServerError();
+    }
+
+    private record Attempt(BidRequestDto request, CompletableFuture<ResponseEntity<?>> response) {}
+}
@@ -0,0 +1,541 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.AppUser;
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.repositories.BidRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Optional append-only journal for accepted bids. Bids are written to a
+ * memory-mapped, segmented file of fixed-size records and acknowledged as soon
+ * as the record is on disk. With {@code force} on, a syncer thread forces
+ * whatever has been written since its last pass in one call and then
+ * completes the waiting bids, so bids arriving together share one flush.
+ * A background thread drains the journal into
+ * {@link BidStore} in batches. A checkpoint file records how far the
+ * drain has got, and on startup everything after it is replayed into the
+ * database before the first bid is accepted. A record the database rejects
+ * for good is appended to the {@code dead-letter} file in the journal
+ * directory and skipped, so it cannot hold up the records behind it.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  commit marker, written last
+ *      4     4  CRC32C of bytes 8..47
+ *      8     8  product id
+ *     16     8  user id
+ *     24     8  price in cents
+ *     32     8  created at, epoch millis
+ *     40     8  sequence number
+ * </pre>
+ */
+// replay writes to products, so their rows must be backfilled first
+@Component
+@DependsOn({"productBidStateBackfill", "productSortKeyBackfill"})
+public class BidJournal {
+
+    static final int RECORD_SIZE = 48;
+
+    private static final Logger log = LoggerFactory.getLogger(BidJournal.class);
+    private static final int COMMITTED = 0x42494431;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String DEAD_LETTER_FILE = "dead-letter";
+    private static final VarHandle MARKER =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final EntityManager entityManager;
+    private final BidRepository bidRepository;
+    private final BidStore bidStore;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean force;
+    private final int drainBatchSize;
+
+    // writer state, guarded by this
+    private MappedByteBuffer writeBuffer;
+    private int writeOffset;
+    private long sequence;
+    private volatile long writeSegment;
+    // appended but not forced yet, guarded by this; only used with force on
+    private List<PendingForce> unforced = new ArrayList<>();
+
+    // syncer state, only touched by the syncer thread
+    private long forcedSegment = -1;
+    private int forcedOffset;
+
+    // drainer state, only touched by the drainer thread (or by open() before it starts)
+    private Position drained;
+    private long drainedSequence;
+    private long readSegment = -1;
+    private MappedByteBuffer readBuffer;
+    // set when a store attempt failed: its commit may still have gone through, so the retry skips stored records
+    private boolean verifyStored;
+
+    private Thread drainer;
+    private Thread syncer;
+    private volatile boolean running;
+
+    public BidJournal(
+            EntityManager entityManager,
+            BidRepository bidRepository,
+            BidStore bidStore,
+            PlatformTransactionManager transactionManager,
+            @Value("${bids.journal.enabled:false}") boolean enabled,
+            @Value("${bids.journal.dir:./data/bid-journal}") String directory,
+            @Value("${bids.journal.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${bids.journal.force:true}") boolean force,
+            @Value("${bids.journal.drain-batch-size:256}") int drainBatchSize
+    ) {
+        this.entityManager = entityManager;
+        this.bidRepository = bidRepository;
+        this.bidStore = bidStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE - RECORD_SIZE,
+                (long) segmentSizeMb * 1024 * 1024) / RECORD_SIZE * RECORD_SIZE;
+        this.force = force;
+        this.drainBatchSize = Math.max(1, drainBatchSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        readCheckpoint();
+        writeSegment = Math.max(drained.segment(), lastSegmentOnDisk());
+
+        int replayed = 0;
+        List<JournalRecord> batch;
+        while (!(batch = readBatch()).isEmpty()) {
+            int done = store(batch, true);
+            if (done > 0) {
+                advance(batch.subList(0, done));
+            }
+            if (done < batch.size()) {
+                throw new IllegalStateException("Could not replay the bid journal, the database is unavailable");
+            }
+            replayed += done;
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} bids from the journal", replayed);
+        }
+        // numbering carries on after the last record drained, so sequence numbers stay unique across restarts
+        synchronized (this) {
+            sequence = drainedSequence;
+        }
+
+        // always start a fresh segment so a torn tail from a crash is never appended to
+        synchronized (this) {
+            writeBuffer = map(writeSegment + 1);
+            writeOffset = 0;
+            writeSegment = writeSegment + 1;
+        }
+        drained = new Position(writeSegment, 0);
+        writeCheckpoint();
+        deleteSegmentsBefore(writeSegment);
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "bid-journal-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+        if (force) {
+            syncer = new Thread(this::syncLoop, "bid-journal-syncer");
+            syncer.setDaemon(true);
+            syncer.start();
+        }
+    }
+
+    /**
+     * Appends the bid to the journal. The returned future completes once the
+     * record is on disk, right away when {@code force} is off; from then on the
+     * bid survives a crash and will reach the database, but it has no id yet.
+     */
+    public CompletableFuture<Bid> append(Bid bid) {
+        long cents = bid.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        long createdAt = bid.getCreatedAt() != null ? bid.getCreatedAt().getTime() : System.currentTimeMillis();
+        CompletableFuture<Bid> result = force ? new CompletableFuture<>() : CompletableFuture.completedFuture(bid);
+
+        synchronized (this) {
+            if (writeOffset + RECORD_SIZE > segmentSize) {
+                roll();
+            }
+
+            int offset = writeOffset;
+            writeBuffer.putLong(offset + 8, bid.getProduct().getId());
+            writeBuffer.putLong(offset + 16, bid.getAppUser().getId());
+            writeBuffer.putLong(offset + 24, cents);
+            writeBuffer.putLong(offset + 32, createdAt);
+            writeBuffer.putLong(offset + 40, ++sequence);
+            writeBuffer.putInt(offset + 4, checksum(writeBuffer, offset));
+            MARKER.setRelease(writeBuffer, offset, COMMITTED);
+            writeOffset = offset + RECORD_SIZE;
+            if (force) {
+                unforced.add(new PendingForce(bid, result));
+            }
+        }
+
+        LockSupport.unpark(drainer);
+        if (force) {
+            LockSupport.unpark(syncer);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (drainer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.interrupt();
+        drainer.join(TimeUnit.SECONDS.toMillis(10));
+        if (syncer != null) {
+            LockSupport.unpark(syncer);
+            syncer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        List<PendingForce> remaining;
+        synchronized (this) {
+            writeBuffer.force();
+            remaining = unforced;
+            unforced = new ArrayList<>();
+        }
+        for (PendingForce pending : remaining) {
+            pending.result().complete(pending.bid());
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            List<PendingForce> batch;
+            MappedByteBuffer buffer;
+            long segment;
+            int end;
+            synchronized (this) {
+                batch = unforced;
+                if (!batch.isEmpty()) {
+                    unforced = new ArrayList<>();
+                }
+                buffer = writeBuffer;
+                segment = writeSegment;
+                end = writeOffset;
+            }
+            if (batch.isEmpty()) {
+                // append() unparks this thread; the timeout only bounds how late shutdown is noticed
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                continue;
+            }
+
+            // one force covers every record written since the previous one; earlier segments were forced by roll()
+            int start = segment == forcedSegment ? forcedOffset : 0;
+            try {
+                buffer.force(start, end - start);
+            } catch (RuntimeException ex) {
+                log.error("Failed to force the bid journal to disk", ex);
+                for (PendingForce pending : batch) {
+                    pending.result().completeExceptionally(ex);
+                }
+                continue;
+            }
+            forcedSegment = segment;
+            forcedOffset = end;
+            for (PendingForce pending : batch) {
+                pending.result().complete(pending.bid());
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                List<JournalRecord> batch = readBatch();
+                if (batch.isEmpty()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                    continue;
+                }
+                int done = store(batch, false);
+                if (done > 0) {
+                    advance(batch.subList(0, done));
+                }
+                if (done < batch.size()) {
+                    // the database is unavailable; the rest stays in the journal until it is back
+                    LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+                }
+            } catch (RuntimeException | IOException ex) {
+                // the database is unavailable; the records stay in the journal until it is back
+                log.warn("Failed to drain bid journal, retrying", ex);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private synchronized void roll() {
+        writeBuffer.force();
+        long next = writeSegment + 1;
+        writeBuffer = map(next);
+        writeOffset = 0;
+        writeSegment = next;
+    }
+
+    private List<JournalRecord> readBatch() throws IOException {
+        List<JournalRecord> batch = new ArrayList<>();
+        long segment = drained.segment();
+        int offset = drained.offset();
+
+        while (batch.size() < drainBatchSize) {
+            boolean sealed = segment < writeSegment;
+            if (offset + RECORD_SIZE > segmentSize || !Files.exists(segmentPath(segment))) {
+                if (!sealed) {
+                    break;
+                }
+                segment++;
+                offset = 0;
+                continue;
+            }
+
+            MappedByteBuffer buffer = readBuffer(segment);
+            if ((int) MARKER.getAcquire(buffer, offset) != COMMITTED
+                    || buffer.getInt(offset + 4) != checksum(buffer, offset)) {
+                // end of the written part; on a sealed segment this is a torn tail
+                if (!sealed) {
+                    break;
+                }
+                segment++;
+                offset = 0;
+                continue;
+            }
+
+            batch.add(new JournalRecord(
+                    buffer.getLong(offset + 8),
+                    buffer.getLong(offset + 16),
+                    buffer.getLong(offset + 24),
+                    buffer.getLong(offset + 32),
+                    buffer.getLong(offset + 40),
+                    new Position(segment, offset + RECORD_SIZE)));
+            offset += RECORD_SIZE;
+        }
+        return batch;
+    }
+
+    /**
+     * Stores the batch in one transaction, or record by record when that
+     * fails. A record that can never be stored, such as a bid on a product
+     * that has since been deleted, goes to the dead-letter file instead of
+     * holding up every record behind it. Returns how many records from the
+     * start of the batch are done with; fewer than all of them means the
+     * database itself is failing.
+     */
+    private int store(List<JournalRecord> batch, boolean replay) throws IOException {
+        try {
+            persist(batch, replay || verifyStored);
+            verifyStored = false;
+            return batch.size();
+        } catch (RuntimeException ex) {
+            // a failure reported while committing does not mean nothing was committed
+            verifyStored = true;
+            if (batch.size() == 1 && !isPermanent(ex)) {
+                log.warn("Failed to store a journaled bid, retrying", ex);
+                return 0;
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            JournalRecord record = batch.get(i);
+            try {
+                persist(List.of(record), true);
+            } catch (RuntimeException ex) {
+                if (!isPermanent(ex)) {
+                    log.warn("Failed to store a journaled bid, retrying", ex);
+                    return i;
+                }
+                deadLetter(record, ex);
+            }
+        }
+        verifyStored = false;
+        return batch.size();
+    }
+
+    // failures that retrying cannot fix: the row breaks a constraint or refers to something that is gone
+    private static boolean isPermanent(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException
+                    || cause instanceof ObjectRetrievalFailureException
+                    || cause instanceof EntityNotFoundException
+                    || cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void deadLetter(JournalRecord record, RuntimeException ex) throws IOException {
+        String reason = String.valueOf(ex.getMessage()).replaceAll("\\s+", " ");
+        String line = record.sequence() + " " + record.productId() + " " + record.userId() + " "
+                + record.priceCents() + " " + record.createdAt() + " " + reason + "\n";
+        Files.writeString(directory.resolve(DEAD_LETTER_FILE), line, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        log.error("Moved journaled bid {} (product {}, user {}) to the dead-letter file, it cannot be stored",
+                record.sequence(), record.productId(), record.userId(), ex);
+    }
+
+    // skipStored is set after a crash or a failed attempt, when some of the records may already be stored
+    private int persist(List<JournalRecord> batch, boolean skipStored) {
+        Integer written = transactionTemplate.execute(status -> {
+            List<Bid> bids = new ArrayList<>(batch.size());
+            for (JournalRecord record : batch) {
+                if (skipStored && bidRepository.findByProductIdAndAppUserId(record.productId(), record.userId()).isPresent()) {
+                    continue;
+                }
+                Bid bid = new Bid();
+                bid.setProduct(entityManager.getReference(Product.class, record.productId()));
+                bid.setAppUser(entityManager.getReference(AppUser.class, record.userId()));
+                bid.setPrice(BigDecimal.valueOf(record.priceCents(), 2));
+                bid.setCreatedAt(new Timestamp(record.createdAt()));
+                bids.add(bid);
+            }
+            bidStore.saveAll(bids);
+            return bids.size();
+        });
+        return written == null ? 0 : written;
+    }
+
+    // the position moves before the checkpoint is written, so a failed checkpoint write never sends the batch to
+    // the database again; if the process dies before the next checkpoint, replay skips the stored records
+    private void advance(List<JournalRecord> batch) throws IOException {
+        Position previous = drained;
+        JournalRecord last = batch.get(batch.size() - 1);
+        drained = last.next();
+        drainedSequence = last.sequence();
+        writeCheckpoint();
+        if (drained.segment() > previous.segment()) {
+            deleteSegmentsBefore(drained.segment());
+        }
+    }
+
+    private MappedByteBuffer readBuffer(long segment) {
+        if (segment != readSegment) {
+            readBuffer = map(segment);
+            readSegment = segment;
+        }
+        return readBuffer;
+    }
+
+    private MappedByteBuffer map(long segment) {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to map bid journal segment " + segment, ex);
+        }
+    }
+
+    private int checksum(MappedByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 8, RECORD_SIZE - 8));
+        return (int) crc.getValue();
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private long lastSegmentOnDisk() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .max()
+                    .orElse(0);
+        }
+    }
+
+    private void deleteSegmentsBefore(long segment) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)
+                        && Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())) < segment) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    // "segment offset sequence"
+    private void readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve("checkpoint");
+        if (!Files.exists(checkpoint)) {
+            drained = new Position(0, 0);
+            drainedSequence = 0;
+            return;
+        }
+        String content = Files.readString(checkpoint, StandardCharsets.US_ASCII).trim();
+        String[] parts = content.split(" ");
+        if (parts.length != 3) {
+            throw new IllegalStateException("Malformed bid journal checkpoint: " + content);
+        }
+        drained = new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+        drainedSequence = Long.parseLong(parts[2]);
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path temp = directory.resolve("checkpoint.tmp");
+        Files.writeString(temp, drained.segment() + " " + drained.offset() + " " + drainedSequence,
+                StandardCharsets.US_ASCII);
+        Files.move(temp, directory.resolve("checkpoint"),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private record Position(long segment, int offset) {}
+
+    private record PendingForce(Bid bid, CompletableFuture<Bid> result) {}
+
+    private record JournalRecord(long productId, long userId, long priceCents, long createdAt, long sequence,
+                                 Position next) {}
+}
@@ -0,0 +1,110 @@
+package com.colonelsanders.backend.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user token bucket for bid submissions, implemented as GCRA: each user
+ * has a single "theoretical arrival time" and a request is allowed if it is
+ * no more than {@code burst} emission intervals ahead of now. Accepting a
+ * request is one compare-and-set, with no locks and no allocation once the
+ * user has an entry.
+ * <p>
+ * An entry whose arrival time is in the past is indistinguishable from a
+ * missing one (the bucket is full), so idle users are evicted without losing
+ * state and the map stays bounded by the number of recently active users.
+ * Eviction only runs on the scheduled sweep: while the map is at
+ * {@code max-users}, new users are turned away until the next sweep rather
+ * than making one of their requests scan the whole map.
+ */
+@Component
+public class BidRateLimiter {
+
+    private final boolean enabled;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final int maxUsers;
+
+    private final ConcurrentMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+
+    public BidRateLimiter(
+            @Value("${bids.rate-limit.enabled:true}") boolean enabled,
+            @Value("${bids.rate-limit.per-second:5}") double perSecond,
+            @Value("${bids.rate-limit.burst:10}") int burst,
+            @Value("${bids.rate-limit.max-users:100000}") int maxUsers
+    ) {
+        this.enabled = enabled;
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+        this.burstNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.maxUsers = maxUsers;
+    }
+
+    /**
+     * Takes a token for {@code userKey}.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(String userKey) {
+        return tryAcquire(userKey, 1);
+    }
+
+    /**
+     * Takes {@code permits} tokens for {@code userKey} at once, or none, so a
+     * batch costs as much as the same bids sent one by one. More permits than
+     * {@link #maxPermits()} are never granted.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(String userKey, int permits) {
+        if (!enabled) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        AtomicLong arrival = arrivals.get(userKey);
+        if (arrival == null) {
+            if (arrivals.size() >= maxUsers) {
+                return emissionIntervalNanos;
+            }
+            arrival = arrivals.computeIfAbsent(userKey, key -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long current = arrival.get();
+            long base = current - now < 0 ? now : current;
+            long next = base + emissionIntervalNanos * permits;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** The most tokens one request can take: the burst, or unlimited when rate limiting is off. */
+    public int maxPermits() {
+        return enabled ? (int) (burstNanos / emissionIntervalNanos) : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Drops users whose bucket has refilled completely. A bid racing with the
+     * removal can at worst be granted one extra token.
+     */
+    @Scheduled(fixedDelayString = "${bids.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        arrivals.values().removeIf(arrival -> arrival.get() - now <= 0);
+    }
+
+    int trackedUsers() {
+        return arrivals.size();
+    }
+}
@@ -0,0 +1,234 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.dto.BidRequestDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional single-writer ingestion path for bids. Products are hashed onto a
+ * fixed number of partitions; each partition has a bounded ring buffer and
+ * one writer thread, so all bids on a product are validated and accepted in
+ * arrival order and never contend on the auction lock. Disabled by default,
+ * in which case the controller calls {@link BidService} directly.
+ * <p>
+ * Requires the bid journal or write-behind: the writers only validate and
+ * reserve, and a synchronous save would put every database commit of a
+ * partition on its one writer thread. Startup fails without either.
+ */
+@Component
+public class BidSequencer {
+
+    private final BidService bidService;
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final long outcomeTimeoutMillis;
+    private final Partition[] partitions;
+
+    public BidSequencer(
+            BidService bidService,
+            @Value("${bids.sequencer.enabled:false}") boolean enabled,
+            @Value("${bids.sequencer.partitions:4}") int partitionCount,
+            @Value("${bids.sequencer.capacity:1024}") int capacity,
+            @Value("${bids.sequencer.timeout-ms:5000}") long timeoutMillis,
+            @Value("${bids.sequencer.outcome-timeout-ms:30000}") long outcomeTimeoutMillis
+    ) {
+        if (enabled && !bidService.persistsAsynchronously()) {
+            throw new IllegalStateException("bids.sequencer.enabled requires bids.journal.enabled or "
+                    + "bids.write-behind.enabled, otherwise every database write runs on a sequencer thread");
+        }
+        this.bidService = bidService;
+        this.enabled = enabled;
+        this.timeoutMillis = timeoutMillis;
+        this.outcomeTimeoutMillis = outcomeTimeoutMillis;
+        this.partitions = new Partition[enabled ? Math.max(1, partitionCount) : 0];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, capacity);
+            partitions[i].writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the bid on its product's partition and waits for the writer to
+     * accept or reject it. Validation errors are rethrown as-is.
+     *
+     * @throws RejectedExecutionException if the partition is full, or the bid
+     *         was still queued when the timeout passed; the bid was not placed
+     */
+    public Bid submit(BidRequestDto request, String userEmail) {
+        if (!enabled) {
+            return bidService.createBid(request, userEmail);
+        }
+
+        Command command = enqueue(request, userEmail);
+        if (command == null) {
+            throw new RejectedExecutionException("Too many pending bids, please retry");
+        }
+        return await(command, TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * Places a batch through the partitions, so its bids are ordered with
+     * every other bid on the same products. All items are queued before any
+     * is awaited, and they share one timeout. Items fail independently: a
+     * full partition or a timeout fails that item only, and it was not placed.
+     *
+     * @return one entry per request, in request order
+     */
+    public List<BidService.BatchItem> submitAll(List<BidRequestDto> requests, String userEmail) {
+        if (!enabled) {
+            return bidService.placeBids(requests, userEmail);
+        }
+
+        Command[] commands = new Command[requests.size()];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = enqueue(requests.get(i), userEmail);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<BidService.BatchItem> items = new ArrayList<>(commands.length);
+        for (int i = 0; i < commands.length; i++) {
+            Long productId = requests.get(i).getProductId();
+            if (commands[i] == null) {
+                items.add(BidService.BatchItem.failed(productId, "Too many pending bids, please retry"));
+                continue;
+            }
+            try {
+                items.add(BidService.BatchItem.accepted(await(commands[i], deadline - System.nanoTime())));
+            } catch (IllegalArgumentException ex) {
+                items.add(BidService.BatchItem.rejected(productId, ex.getMessage()));
+            } catch (RejectedExecutionException ex) {
+                items.add(BidService.BatchItem.failed(productId, ex.getMessage()));
+            } catch (RuntimeException ex) {
+                items.add(BidService.BatchItem.failed(productId, "Failed to save bid"));
+            }
+        }
+        return items;
+    }
+
+    // null when the partition is full
+    private Command enqueue(BidRequestDto request, String userEmail) {
+        Command command = new Command(request, userEmail, new CompletableFuture<>(), new AtomicBoolean());
+        return partitionFor(request.getProductId()).queue.offer(command) ? command : null;
+    }
+
+    private Bid await(Command command, long timeoutNanos) {
+        try {
+            return command.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (TimeoutException ex) {
+            if (command.started.compareAndSet(false, true)) {
+                // still queued: the writer will skip it, so the bid is certainly not placed and a retry is safe
+                command.result.cancel(false);
+                throw new RejectedExecutionException("Timed out waiting for bid to be processed, please retry");
+            }
+            // the writer already took it, so the outcome is coming and is the only honest answer
+            return awaitStarted(command);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bid to be processed", ex);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException("Failed to create bid", ex.getCause());
+    }
+
+    // bounded as well, so a writer stuck on a bid cannot hold request threads forever
+    private Bid awaitStarted(Command command) {
+        try {
+            return command.result.get(outcomeTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (TimeoutException ex) {
+            // unlike a bid still queued, this one may yet be placed, so it is not reported as safe to retry
+            throw new IllegalStateException("Timed out waiting for the outcome of the bid", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bid to be processed", ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Partition partition : partitions) {
+            partition.writer.interrupt();
+        }
+    }
+
+    private Partition partitionFor(Long productId) {
+        int hash = productId == null ? 0 : Long.hashCode(productId);
+        return partitions[Math.floorMod(hash, partitions.length)];
+    }
+
+    // the writer only validates and reserves; the journal or write-behind completes the future after the write
+    private void process(Command command) {
+        if (!command.started.compareAndSet(false, true)) {
+            // the caller gave up waiting and was told the bid was not placed
+            return;
+        }
+        try {
+            bidService.placeBid(command.request, command.userEmail).whenComplete((bid, ex) -> {
+                if (ex != null) {
+                    command.result.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+                } else {
+                    command.result.complete(bid);
+                }
+            });
+        } catch (RuntimeException ex) {
+            command.result.completeExceptionally(ex);
+        }
+    }
+
+    // started is claimed once, either by the writer before processing or by a caller that timed out
+    private record Command(BidRequestDto request, String userEmail, CompletableFuture<Bid> result,
+                           AtomicBoolean started) {}
+
+    private final class Partition {
+        // ArrayBlockingQueue is a fixed-size circular buffer; offer() fails fast when full
+        private final BlockingQueue<Command> queue;
+        private final Thread writer;
+
+        private Partition(int index, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.writer = new Thread(this::run, "bid-sequencer-" + index);
+            this.writer.setDaemon(true);
+        }
+
+        private void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    process(queue.take());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            Command pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result.completeExceptionally(new RejectedExecutionException("Bid sequencer is shutting down"));
+            }
+        }
+    }
+}
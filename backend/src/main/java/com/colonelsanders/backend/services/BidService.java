@@ -2,82 +2,252 @@ package com.colonelsanders.backend.services;
 
 import com.colonelsanders.backend.database.models.AppUser;
 import com.colonelsanders.backend.database.models.Bid;
-import com.colonelsanders.backend.database.models.Product;
-import com.colonelsanders.backend.database.repositories.AppUserRepository;
 import com.colonelsanders.backend.database.repositories.BidRepository;
-import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.dto.BidDto;
+import com.colonelsanders.backend.dto.BidFilterDto;
 import com.colonelsanders.backend.dto.BidRequestDto;
+import com.colonelsanders.backend.events.BidAcceptedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BidService {
 
     private final BidRepository bidRepository;
-    private final ProductRepository productRepository;
-    private final AppUserRepository appUserRepository;
-
-    public BidService(BidRepository bidRepository,
-                      ProductRepository productRepository,
-                      AppUserRepository appUserRepository) {
+    private final BidStore bidStore;
+    private final AuctionBook auctionBook;
+    private final BidWriteBehind bidWriteBehind;
+    private final BidJournal bidJournal;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BidService(BidRepository bidRepository, BidStore bidStore, AuctionBook auctionBook,
+                      BidWriteBehind bidWriteBehind, BidJournal bidJournal,
+                      ApplicationEventPublisher eventPublisher) {
         this.bidRepository = bidRepository;
-        this.productRepository = productRepository;
-        this.appUserRepository = appUserRepository;
+        this.bidStore = bidStore;
+        this.auctionBook = auctionBook;
+        this.bidWriteBehind = bidWriteBehind;
+        this.bidJournal = bidJournal;
+        this.eventPublisher = eventPublisher;
     }
 
     public Bid createBid(BidRequestDto request, String userEmail) {
-        Optional<Product> productOpt = productRepository.findById(request.getProductId());
-        if (productOpt.isEmpty()) {
+        try {
+            return placeBid(request, userEmail).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Validates and accepts a bid, returning once it is reserved in the auction
+     * book. The future completes when the bid has been written to the database,
+     * or to the bid journal when that is enabled.
+     * Validation failures are thrown directly rather than through the future.
+     */
+    public CompletableFuture<Bid> placeBid(BidRequestDto request, String userEmail) {
+        Optional<AuctionBook.Auction> auctionOpt = auctionBook.find(request.getProductId());
+        if (auctionOpt.isEmpty()) {
             throw new IllegalArgumentException("Product not found with id: " + request.getProductId());
         }
 
-        if (productOpt.get().getClosed() != null && productOpt.get().getClosed()) {
-            throw new IllegalArgumentException("Cannot bid on a closed product");
+        AuctionBook.Auction auction = auctionOpt.get();
+        checkPrice(auction, request.getPrice());
+
+        Optional<AppUser> userOpt = auctionBook.findUser(userEmail);
+        if (userOpt.isEmpty()) {
+            throw new IllegalArgumentException("User not found");
         }
 
-        if (request.getPrice() == null || request.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Price must be greater than 0");
+        AppUser user = userOpt.get();
+        auctionBook.reserve(auction, user.getId(), request.getPrice());
+        Bid bid = newBid(auction, user, request.getPrice());
+
+        CompletableFuture<Bid> persisted;
+        try {
+            persisted = persist(bid);
+        } catch (RuntimeException ex) {
+            auctionBook.release(auction, user.getId());
+            throw ex;
         }
+        return persisted.whenComplete((saved, ex) -> {
+            if (ex != null) {
+                auctionBook.release(auction, user.getId());
+            } else {
+                eventPublisher.publishEvent(new BidAcceptedEvent(saved));
+            }
+        });
+    }
 
-        if (productOpt.get().getStartingPrice() != null &&
-                request.getPrice().compareTo(productOpt.get().getStartingPrice()) < 0) {
-            throw new IllegalArgumentException("Price must be at least the starting price of "
-                    + productOpt.get().getStartingPrice());
+    /**
+     * Places several bids for one user. All auctions are looked up together
+     * and every item is validated in memory; the accepted bids are then
+     * written in one batch. Items fail independently, and the result has one
+     * entry per request in the same order. An unknown user fails the whole call.
+     */
+    public List<BatchItem> placeBids(List<BidRequestDto> requests, String userEmail) {
+        AppUser user = auctionBook.findUser(userEmail)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        List<Long> productIds = new ArrayList<>(requests.size());
+        for (BidRequestDto request : requests) {
+            productIds.add(request.getProductId());
+        }
+        Map<Long, AuctionBook.Auction> auctions = auctionBook.findAll(productIds);
+
+        BatchItem[] items = new BatchItem[requests.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Bid> accepted = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BidRequestDto request = requests.get(i);
+            AuctionBook.Auction auction = auctions.get(request.getProductId());
+            try {
+                if (auction == null) {
+                    throw new IllegalArgumentException("Product not found with id: " + request.getProductId());
+                }
+                checkPrice(auction, request.getPrice());
+                auctionBook.reserve(auction, user.getId(), request.getPrice());
+            } catch (IllegalArgumentException ex) {
+                items[i] = BatchItem.rejected(request.getProductId(), ex.getMessage());
+                continue;
+            }
+            acceptedIndexes.add(i);
+            accepted.add(newBid(auction, user, request.getPrice()));
         }
 
-        Optional<AppUser> userOpt = appUserRepository.findByEmail(userEmail);
-        if (userOpt.isEmpty()) {
-            throw new IllegalArgumentException("User not found");
+        List<CompletableFuture<Bid>> persisted = persistAll(accepted);
+        for (int n = 0; n < persisted.size(); n++) {
+            int index = acceptedIndexes.get(n);
+            Long productId = requests.get(index).getProductId();
+            try {
+                Bid bid = persisted.get(n).join();
+                items[index] = BatchItem.accepted(bid);
+                eventPublisher.publishEvent(new BidAcceptedEvent(bid));
+            } catch (CompletionException ex) {
+                auctionBook.release(auctions.get(productId), user.getId());
+                items[index] = BatchItem.failed(productId, "Failed to save bid");
+            }
         }
+        return List.of(items);
+    }
 
-        AppUser user = userOpt.get();
-        Product product = productOpt.get();
+    public record BatchItem(Long productId, Status status, Bid bid, String error) {
+        public enum Status { ACCEPTED, REJECTED, FAILED }
+
+        static BatchItem accepted(Bid bid) {
+            return new BatchItem(bid.getProduct().getId(), Status.ACCEPTED, bid, null);
+        }
+
+        static BatchItem rejected(Long productId, String error) {
+            return new BatchItem(productId, Status.REJECTED, null, error);
+        }
 
-        Optional<Bid> existingBid = bidRepository.findByProductIdAndAppUserId(product.getId(), user.getId());
-        Bid bid;
+        static BatchItem failed(Long productId, String error) {
+            return new BatchItem(productId, Status.FAILED, null, error);
+        }
+    }
 
-        if (existingBid.isPresent()) {
-            throw new IllegalArgumentException("You have already placed a bid on this product");
+    private void checkPrice(AuctionBook.Auction auction, BigDecimal price) {
+        if (auction.isClosed()) {
+            throw new IllegalArgumentException("Cannot bid on a closed product");
         }
 
-        bid = new Bid();
-        bid.setProduct(product);
+        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be greater than 0");
+        }
+
+        BigDecimal startingPrice = auction.getStartingPrice();
+        if (startingPrice != null && price.compareTo(startingPrice) < 0) {
+            throw new IllegalArgumentException("Price must be at least the starting price of " + startingPrice);
+        }
+    }
+
+    private Bid newBid(AuctionBook.Auction auction, AppUser user, BigDecimal price) {
+        Bid bid = new Bid();
+        bid.setProduct(auction.getProduct());
         bid.setAppUser(user);
-        bid.setPrice(request.getPrice());
+        bid.setPrice(price);
         bid.setCreatedAt(Timestamp.from(Instant.now()));
+        return bid;
+    }
 
-        return bidRepository.save(bid);
+    /**
+     * Whether accepted bids are written off the calling thread, by the bid
+     * journal or by write-behind, so {@link #placeBid} returns before the
+     * database write.
+     */
+    public boolean persistsAsynchronously() {
+        return bidJournal.isEnabled() || bidWriteBehind.isEnabled();
+    }
+
+    // the journal and write-behind already batch on their own; otherwise one transaction and one JDBC batch
+    private List<CompletableFuture<Bid>> persistAll(List<Bid> bids) {
+        List<CompletableFuture<Bid>> futures = new ArrayList<>(bids.size());
+        if (bids.isEmpty()) {
+            return futures;
+        }
+        if (persistsAsynchronously()) {
+            for (Bid bid : bids) {
+                try {
+                    futures.add(persist(bid));
+                } catch (RuntimeException ex) {
+                    futures.add(CompletableFuture.failedFuture(ex));
+                }
+            }
+            return futures;
+        }
+
+        try {
+            for (Bid bid : bidStore.saveAll(bids)) {
+                futures.add(CompletableFuture.completedFuture(bid));
+            }
+        } catch (RuntimeException ex) {
+            futures.clear();
+            for (int i = 0; i < bids.size(); i++) {
+                futures.add(CompletableFuture.failedFuture(ex));
+            }
+        }
+        return futures;
+    }
+
+    private CompletableFuture<Bid> persist(Bid bid) {
+        if (bidJournal.isEnabled()) {
+            return bidJournal.append(bid);
+        }
+        if (bidWriteBehind.isEnabled()) {
+            return bidWriteBehind.submit(bid);
+        }
+        return CompletableFuture.completedFuture(bidStore.save(bid));
+    }
+
+    public List<BidDto> getBidPage(BidFilterDto filter, long afterId, int limit) {
+        return bidRepository.findPage(filter, afterId, limit);
     }
 
     /**
-     * Retrieve every bid stored in the system. Mostly used by administrators
-     * or for diagnostics; the controller is responsible for mapping to DTOs.
+     * Hands every matching bid to {@code consumer} while reading them through
+     * a database cursor, so memory use does not depend on the number of rows.
      */
-    public Iterable<Bid> getAllBids() {
-        return bidRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamBids(BidFilterDto filter, Consumer<BidDto> consumer) {
+        try (Stream<BidDto> bids = bidRepository.streamAll(filter)) {
+            bids.forEach(consumer);
+        }
     }
 }
@@ -0,0 +1,193 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.repositories.BidRepository;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.dto.BidStatsDto;
+import com.colonelsanders.backend.dto.PriceBucketDto;
+import com.colonelsanders.backend.events.BidAcceptedEvent;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Per-product bid count, min, max, mean and price histogram, kept in memory.
+ * Every accepted bid updates its product's aggregates in constant time, so
+ * reading them never touches the database. The state is rebuilt from the
+ * bid table once at startup.
+ * <p>
+ * Histogram buckets are fixed multiples of the product's starting price, so
+ * they read the same way for cheap and expensive items. Products without a
+ * starting price fall back to decades of the absolute price.
+ */
+@Component
+public class BidStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(BidStatistics.class);
+
+    private static final BigDecimal[] STARTING_PRICE_MULTIPLES = decimals("1", "1.1", "1.25", "1.5", "2", "3", "5", "10");
+    private static final BigDecimal[] DECADES = decimals("1", "10", "100", "1000", "10000", "100000");
+
+    private final ProductRepository productRepository;
+    private final BidRepository bidRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // one entry per known product, so an unknown id can be answered without a query
+    private final ConcurrentMap<Long, Stats> stats = new ConcurrentHashMap<>();
+
+    public BidStatistics(ProductRepository productRepository,
+                         BidRepository bidRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.bidRepository = bidRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, Stats> rebuilt = new HashMap<>();
+        long bids = transactionTemplate.execute(status -> {
+            for (ProductRepository.StartingPrice product : productRepository.findStartingPrices()) {
+                rebuilt.put(product.getId(), new Stats(product.getStartingPrice()));
+            }
+            long count = 0;
+            try (Stream<BidRepository.BidderPrice> prices = bidRepository.streamAllBidderPrices()) {
+                for (BidRepository.BidderPrice price : (Iterable<BidRepository.BidderPrice>) prices::iterator) {
+                    Stats product = rebuilt.get(price.getProductId());
+                    if (product != null) {
+                        product.add(price.getPrice());
+                        count++;
+                    }
+                }
+            }
+            return count;
+        });
+        stats.clear();
+        stats.putAll(rebuilt);
+        log.info("Rebuilt bid statistics for {} products from {} bids", rebuilt.size(), bids);
+    }
+
+    public Optional<BidStatsDto> get(Long productId) {
+        Stats product = stats.get(productId);
+        return product == null ? Optional.empty() : Optional.of(product.snapshot(productId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidAccepted(BidAcceptedEvent event) {
+        Bid bid = event.bid();
+        Product product = bid.getProduct();
+        stats.computeIfAbsent(product.getId(), id -> new Stats(product.getStartingPrice()))
+                .add(bid.getPrice());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        Stats current = stats.get(product.getId());
+        if (current == null) {
+            stats.putIfAbsent(product.getId(), new Stats(product.getStartingPrice()));
+            return;
+        }
+        if (current.hasStartingPrice(product.getStartingPrice())) {
+            return;
+        }
+
+        // the bucket bounds moved, so the existing counts cannot be reused
+        Stats recomputed = new Stats(product.getStartingPrice());
+        for (BidRepository.BidderPrice price : bidRepository.findBidderPricesByProductId(product.getId())) {
+            recomputed.add(price.getPrice());
+        }
+        stats.put(product.getId(), recomputed);
+    }
+
+    private static BigDecimal[] decimals(String... values) {
+        return Arrays.stream(values).map(BigDecimal::new).toArray(BigDecimal[]::new);
+    }
+
+    private static final class Stats {
+        private final BigDecimal startingPrice;
+        // lower bounds of every bucket after the first, which starts at 0
+        private final BigDecimal[] bounds;
+        private final long[] buckets;
+
+        private long count;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private BigDecimal min;
+        private BigDecimal max;
+
+        private Stats(BigDecimal startingPrice) {
+            this.startingPrice = startingPrice;
+            if (startingPrice != null && startingPrice.signum() > 0) {
+                this.bounds = new BigDecimal[STARTING_PRICE_MULTIPLES.length];
+                for (int i = 0; i < bounds.length; i++) {
+                    bounds[i] = startingPrice.multiply(STARTING_PRICE_MULTIPLES[i]);
+                }
+            } else {
+                this.bounds = DECADES;
+            }
+            this.buckets = new long[bounds.length + 1];
+        }
+
+        private boolean hasStartingPrice(BigDecimal price) {
+            return startingPrice == null ? price == null : price != null && startingPrice.compareTo(price) == 0;
+        }
+
+        private synchronized void add(BigDecimal price) {
+            count++;
+            sum = sum.add(price);
+            if (min == null || price.compareTo(min) < 0) {
+                min = price;
+            }
+            if (max == null || price.compareTo(max) > 0) {
+                max = price;
+            }
+            buckets[bucketOf(price)]++;
+        }
+
+        private int bucketOf(BigDecimal price) {
+            int low = 0;
+            int high = bounds.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (price.compareTo(bounds[mid]) < 0) {
+                    high = mid - 1;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private synchronized BidStatsDto snapshot(Long productId) {
+            List<PriceBucketDto> histogram = new ArrayList<>(buckets.length);
+            for (int i = 0; i < buckets.length; i++) {
+                histogram.add(new PriceBucketDto(
+                        i == 0 ? BigDecimal.ZERO : bounds[i - 1],
+                        i == bounds.length ? null : bounds[i],
+                        buckets[i]));
+            }
+            BigDecimal mean = count == 0 ? null
+                    : sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+            return new BidStatsDto(productId, count, min, max, mean, histogram);
+        }
+    }
+}
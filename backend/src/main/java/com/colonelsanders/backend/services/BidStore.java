@@ -0,0 +1,57 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.repositories.BidRepository;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes accepted bids together with the denormalized bid state on their
+ * products, in one transaction. Used by every persistence path (direct,
+ * write-behind and journal drain).
+ */
+@Component
+public class BidStore {
+
+    private final BidRepository bidRepository;
+    private final ProductRepository productRepository;
+
+    public BidStore(BidRepository bidRepository, ProductRepository productRepository) {
+        this.bidRepository = bidRepository;
+        this.productRepository = productRepository;
+    }
+
+    @Transactional
+    public Bid save(Bid bid) {
+        return saveAll(List.of(bid)).get(0);
+    }
+
+    @Transactional
+    public List<Bid> saveAll(List<Bid> bids) {
+        List<Bid> saved = new ArrayList<>(bids.size());
+        bidRepository.saveAll(bids).forEach(saved::add);
+
+        // one update pair per product, in id order so concurrent batches lock rows in the same order
+        Map<Long, List<Bid>> byProduct = new TreeMap<>();
+        for (Bid bid : saved) {
+            byProduct.computeIfAbsent(bid.getProduct().getId(), id -> new ArrayList<>()).add(bid);
+        }
+        for (Map.Entry<Long, List<Bid>> entry : byProduct.entrySet()) {
+            Bid top = null;
+            for (Bid bid : entry.getValue()) {
+                if (top == null || bid.getPrice().compareTo(top.getPrice()) > 0) {
+                    top = bid;
+                }
+            }
+            productRepository.incrementBidCount(entry.getKey(), entry.getValue().size());
+            productRepository.raiseHighestBid(entry.getKey(), top.getPrice(), top.getAppUser().getId());
+        }
+        return saved;
+    }
+}
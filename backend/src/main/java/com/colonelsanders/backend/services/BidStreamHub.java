@@ -0,0 +1,263 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.events.BidAcceptedEvent;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out of live bid and close events to SSE subscribers, grouped by product.
+ * Each event is rendered to its SSE frame once and the same frame is handed
+ * to every subscriber. Connections are async servlet responses, so they hold
+ * no thread while idle. Writes run on virtual threads, at most one per
+ * subscriber: a servlet write blocks while the client's socket is full, and
+ * on a shared pool one stalled client would hold up everyone queued behind
+ * it. Every subscriber has a bounded queue, and a subscriber that falls that
+ * far behind, or whose write has not finished within the write timeout, is
+ * disconnected. The browser's EventSource reconnects and the client reloads
+ * the product, which is cheaper than buffering for it.
+ */
+@Component
+public class BidStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(BidStreamHub.class);
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("bid-stream-", 0).factory());
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+
+    public BidStreamHub(
+            @Value("${bids.stream.queue-capacity:64}") int queueCapacity,
+            @Value("${bids.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${bids.stream.write-timeout-ms:10000}") long writeTimeoutMillis
+    ) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.timeoutMillis = timeoutMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+    }
+
+    public SseEmitter subscribe(Long productId) {
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(productId, emitter);
+        subscribers.compute(productId, (id, set) -> {
+            Set<Subscriber> target = set == null ? ConcurrentHashMap.newKeySet() : set;
+            target.add(subscriber);
+            return target;
+        });
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        return emitter;
+    }
+
+    // overridden by tests to stand in for a client that stops reading
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    public int subscriberCount(Long productId) {
+        Set<Subscriber> set = subscribers.get(productId);
+        return set == null ? 0 : set.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidAccepted(BidAcceptedEvent event) {
+        Bid bid = event.bid();
+        Long productId = bid.getProduct().getId();
+        if (subscriberCount(productId) == 0) {
+            return;
+        }
+        broadcast(productId, new Frame(render("bid", bidJson(bid)), false));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        if (!Boolean.TRUE.equals(product.getClosed()) || subscriberCount(product.getId()) == 0) {
+            return;
+        }
+        // nothing can follow a close, so the frame also ends the stream
+        broadcast(product.getId(), new Frame(render("closed", closedJson(product)), true));
+    }
+
+    /**
+     * Drops subscribers stuck in one write for longer than the write timeout.
+     * Their writer stays parked until the container times the socket out,
+     * but it costs no platform thread, and no more frames are queued for it.
+     */
+    @Scheduled(fixedDelayString = "${bids.stream.stall-check-interval-ms:1000}")
+    public void dropStalled() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                if (subscriber.isStalled(now)) {
+                    log.debug("Dropping stalled bid stream subscriber on product {}", subscriber.productId);
+                    // completed by its writer once the stuck write returns, see Subscriber.run()
+                    subscriber.close();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.emitter.complete();
+            }
+        }
+        subscribers.clear();
+    }
+
+    private void broadcast(Long productId, Frame frame) {
+        Set<Subscriber> set = subscribers.get(productId);
+        if (set == null) {
+            return;
+        }
+        for (Subscriber subscriber : set) {
+            subscriber.enqueue(frame);
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> render(String name, String json) {
+        return SseEmitter.event()
+                .id(Long.toString(eventIds.incrementAndGet()))
+                .name(name)
+                .data(json)
+                .build();
+    }
+
+    // hand-written: the payloads are flat and made of numbers, so no escaping is needed
+    private static String bidJson(Bid bid) {
+        return "{\"id\":" + bid.getId()
+                + ",\"productId\":" + bid.getProduct().getId()
+                + ",\"appUserId\":" + (bid.getAppUser() == null ? null : bid.getAppUser().getId())
+                + ",\"price\":" + bid.getPrice().toPlainString()
+                + ",\"createdAt\":" + (bid.getCreatedAt() == null ? "null" : "\"" + bid.getCreatedAt().toInstant() + "\"")
+                + "}";
+    }
+
+    private static String closedJson(Product product) {
+        return "{\"productId\":" + product.getId()
+                + ",\"highestBidPrice\":" + (product.getHighestBidPrice() == null ? null : product.getHighestBidPrice().toPlainString())
+                + ",\"highestBidderId\":" + product.getHighestBidderId()
+                + "}";
+    }
+
+    private record Frame(Set<ResponseBodyEmitter.DataWithMediaType> data, boolean last) {}
+
+    private final class Subscriber implements Runnable {
+        private final Long productId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Frame> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean closed;
+        // System.nanoTime() when the write in progress started, 0 when no write is in progress
+        private volatile long writeStartedAt;
+
+        private Subscriber(Long productId, SseEmitter emitter) {
+            this.productId = productId;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(Frame frame) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                log.debug("Dropping slow bid stream subscriber on product {}", productId);
+                // this is the thread that published the bid; completing here would wait for the emitter's
+                // lock, which a stalled write holds, so the writer completes the emitter instead
+                close();
+            }
+            schedule();
+        }
+
+        // at most one writer per subscriber, so frames go out in order
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Frame frame;
+                while (!closed && (frame = queue.poll()) != null) {
+                    writeStartedAt = System.nanoTime();
+                    emitter.send(frame.data());
+                    writeStartedAt = 0;
+                    if (frame.last()) {
+                        close();
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // client went away; the emitter callbacks may not fire for a write failure
+                close();
+            } finally {
+                writeStartedAt = 0;
+                scheduled.set(false);
+                if (closed) {
+                    complete();
+                } else if (!queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        // only ever called by the writer, which holds no frame in flight at this point
+        private void complete() {
+            if (completed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        private boolean isStalled(long now) {
+            long startedAt = writeStartedAt;
+            return startedAt != 0 && now - startedAt > writeTimeoutNanos;
+        }
+
+        private void close() {
+            closed = true;
+            queue.clear();
+            subscribers.computeIfPresent(productId, (id, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional group commit for bid inserts. Accepted bids are queued and a single
+ * flusher thread writes them in batches of up to {@code batch-size} rows, waiting
+ * at most {@code linger-ms} for a batch to fill. Each batch is one
+ * {@link BidStore} transaction (and one JDBC batch, see
+ * {@code hibernate.jdbc.batch_size}); callers' futures complete only after that
+ * transaction has committed. At shutdown everything still queued is flushed,
+ * and whatever the flusher could not get to in time is failed, so no caller
+ * waits on a future that never completes.
+ */
+@Component
+public class BidWriteBehind {
+
+    private final BidStore bidStore;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<PendingBid> queue;
+    private final Thread flusher;
+
+    private final DistributionSummary batchSizes;
+    private final Timer lingerTimer;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+
+    public BidWriteBehind(
+            BidStore bidStore,
+            MeterRegistry meterRegistry,
+            @Value("${bids.write-behind.enabled:false}") boolean enabled,
+            @Value("${bids.write-behind.batch-size:64}") int batchSize,
+            @Value("${bids.write-behind.linger-ms:5}") long lingerMillis,
+            @Value("${bids.write-behind.capacity:8192}") int capacity
+    ) {
+        this.bidStore = bidStore;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMillis));
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.batchSize, capacity));
+
+        this.batchSizes = DistributionSummary.builder("bids.write_behind.batch.size")
+                .description("Bids written per group commit")
+                .register(meterRegistry);
+        this.lingerTimer = Timer.builder("bids.write_behind.linger")
+                .description("Time the oldest bid of a batch waited before the flush started")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("bids.write_behind.flush")
+                .description("Time spent writing and committing one batch")
+                .register(meterRegistry);
+        Gauge.builder("bids.write_behind.queue", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("bids.write_behind.batch.size.max", () -> this.batchSize).register(meterRegistry);
+        Gauge.builder("bids.write_behind.linger.max", () -> lingerMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        this.flusher = new Thread(this::run, "bid-write-behind");
+        this.flusher.setDaemon(true);
+        if (enabled) {
+            running = true;
+            flusher.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Bid> submit(Bid bid) {
+        PendingBid pending = new PendingBid(bid, System.nanoTime(), new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new RejectedExecutionException("Too many pending bids, please retry");
+        }
+        // raced with shutdown: the flusher may already have drained the queue for the last time
+        if (!running && queue.remove(pending)) {
+            throw new RejectedExecutionException("Too many pending bids, please retry");
+        }
+        return pending.result;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // only left when the flusher is stuck in a write or died
+        List<PendingBid> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        for (PendingBid pending : abandoned) {
+            pending.result.completeExceptionally(new RejectedExecutionException("Shutting down, bid was not saved"));
+        }
+    }
+
+    private void run() {
+        List<PendingBid> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                collect(batch);
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                }
+            }
+        } finally {
+            // the interrupt only stops the waiting; clear it so the final writes are not cut short
+            Thread.interrupted();
+            do {
+                queue.drainTo(batch, batchSize - batch.size());
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                }
+            } while (!queue.isEmpty());
+        }
+    }
+
+    private void collect(List<PendingBid> batch) {
+        try {
+            batch.add(queue.take());
+            long deadline = batch.get(0).queuedAt + lingerNanos;
+            while (batch.size() < batchSize) {
+                if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                    continue;
+                }
+                PendingBid next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException ex) {
+            // shutting down: whatever is already queued is flushed on the way out of run()
+        }
+    }
+
+    private void flush(List<PendingBid> batch) {
+        lingerTimer.record(System.nanoTime() - batch.get(0).queuedAt, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+
+        List<Bid> bids = new ArrayList<>(batch.size());
+        for (PendingBid pending : batch) {
+            bids.add(pending.bid);
+        }
+
+        try {
+            List<Bid> saved = flushTimer.record(() -> bidStore.saveAll(bids));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(saved.get(i));
+            }
+        } catch (RuntimeException batchFailure) {
+            // one bad row must not fail its neighbours: retry each bid on its own
+            for (PendingBid pending : batch) {
+                try {
+                    // ids handed out by the rolled back transaction are not in the table
+                    pending.bid.setId(null);
+                    pending.result.complete(bidStore.save(pending.bid));
+                } catch (RuntimeException ex) {
+                    pending.result.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    private record PendingBid(Bid bid, long queuedAt, CompletableFuture<Bid> result) {}
+}
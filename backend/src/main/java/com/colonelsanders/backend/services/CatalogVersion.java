@@ -0,0 +1,58 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.events.BidAcceptedEvent;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the product catalog, used as the ETag of the catalog
+ * endpoints. The tags are weak: Tomcat does not compress a response with a
+ * strong ETag, and a gzipped body is not byte-identical to the plain one
+ * anyway. Each tag also names the representation (json, cbor, csv), since
+ * the same version is served in more than one format. It is bumped on every product change, and a separate
+ * counter is bumped on every accepted bid for responses that include bid
+ * results. Both start from zero on every boot, so the tag also carries the
+ * boot time; a restart changes every ETag once instead of reusing old ones.
+ * <p>
+ * Callers must take the tag before they read the data it describes. The
+ * read cache is invalidated before the version moves, so a request that
+ * sees the new version is never answered from a stale cache entry, which
+ * would leave a client holding old content under the new tag.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong products = new AtomicLong();
+    private final AtomicLong bids = new AtomicLong();
+
+    private final ProductReadCache productReadCache;
+
+    public CatalogVersion(ProductReadCache productReadCache) {
+        this.productReadCache = productReadCache;
+    }
+
+    /** ETag of responses built from product data only. */
+    public String productsETag(String representation) {
+        return "W/\"" + epoch + "-" + products.get() + "-" + representation + "\"";
+    }
+
+    /** ETag of responses that also include the highest bids. */
+    public String productsAndBidsETag(String representation) {
+        return "W/\"" + epoch + "-" + products.get() + "-" + bids.get() + "-" + representation + "\"";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productReadCache.invalidate(event.product().getId());
+        products.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidAccepted(BidAcceptedEvent event) {
+        bids.incrementAndGet();
+    }
+}
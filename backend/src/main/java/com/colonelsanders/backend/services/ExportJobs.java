@@ -0,0 +1,263 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.repositories.BidRepository;
+import com.colonelsanders.backend.dto.BidFilterDto;
+import com.colonelsanders.backend.dto.ExportJobDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs full exports of products (CSV) or bids (NDJSON) in the background, so
+ * a large export does not hold a request thread for its whole run. Each job
+ * writes a gzip file into the export directory, reporting how many rows it
+ * has written while it runs; the file is only moved to its final name once
+ * it is complete, so a download never sees a partial export.
+ * <p>
+ * Jobs are kept in memory. Finished jobs and their files are dropped after
+ * the TTL, and files left behind by a previous run are deleted on startup.
+ */
+@Component
+public class ExportJobs {
+
+    public enum Type {
+        PRODUCTS("csv"),
+        BIDS("ndjson");
+
+        private final String extension;
+
+        Type(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException if {@code name} is not an export type
+         */
+        public static Type parse(String name) {
+            if (name != null) {
+                for (Type type : values()) {
+                    if (type.name().equalsIgnoreCase(name)) {
+                        return type;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Unknown export type: " + name);
+        }
+    }
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobs.class);
+    private static final String FILE_PREFIX = "export-";
+    private static final String PART_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ProductCsvExporter productCsvExporter;
+    private final BidService bidService;
+    private final ProductFacets productFacets;
+    private final BidRepository bidRepository;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int maxActive;
+    private final long ttlMillis;
+    private final ExecutorService workers;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobs(
+            ProductCsvExporter productCsvExporter,
+            BidService bidService,
+            ProductFacets productFacets,
+            BidRepository bidRepository,
+            ObjectMapper objectMapper,
+            @Value("${exports.dir:./data/exports}") String directory,
+            @Value("${exports.worker-threads:2}") int workerThreads,
+            @Value("${exports.max-active:4}") int maxActive,
+            @Value("${exports.ttl-ms:3600000}") long ttlMillis
+    ) {
+        this.productCsvExporter = productCsvExporter;
+        this.bidService = bidService;
+        this.productFacets = productFacets;
+        this.bidRepository = bidRepository;
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+        this.maxActive = Math.max(1, maxActive);
+        this.ttlMillis = ttlMillis;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "export-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        // the jobs that wrote these are gone with the previous run, nothing can download them any more
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+            for (Path file : leftovers) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Queues an export and returns it in its initial state.
+     *
+     * @throws IllegalStateException if {@code exports.max-active} exports are already queued or running
+     */
+    public synchronized ExportJobDto start(Type type) {
+        long active = jobs.values().stream().filter(job -> !job.isFinished()).count();
+        if (active >= maxActive) {
+            throw new IllegalStateException("Too many exports in progress, try again later");
+        }
+        String id = UUID.randomUUID().toString();
+        Job job = new Job(id, type, directory.resolve(FILE_PREFIX + id + "." + type.extension + ".gz"));
+        jobs.put(id, job);
+        workers.execute(() -> run(job));
+        return job.toDto();
+    }
+
+    public Optional<ExportJobDto> get(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toDto);
+    }
+
+    /** The finished export file, or empty while the job is still running, has failed or is unknown. */
+    public Optional<Path> file(String id) {
+        Job job = jobs.get(id);
+        return job != null && job.status == Status.DONE ? Optional.of(job.file) : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${exports.evict-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        for (Job job : jobs.values()) {
+            Timestamp finishedAt = job.finishedAt;
+            if (finishedAt != null && now - finishedAt.getTime() >= ttlMillis && jobs.remove(job.id, job)) {
+                deleteQuietly(job.file);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void run(Job job) {
+        job.status = Status.RUNNING;
+        Path part = job.file.resolveSibling(job.file.getFileName() + PART_SUFFIX);
+        try {
+            job.totalRows = job.type == Type.PRODUCTS ? productFacets.get().getTotal() : bidRepository.count();
+            try (OutputStream out = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(part), BUFFER_SIZE), BUFFER_SIZE)) {
+                write(job, out);
+            }
+            Files.move(part, job.file, StandardCopyOption.ATOMIC_MOVE);
+            job.sizeBytes = Files.size(job.file);
+            job.finish(Status.DONE, null);
+            log.info("Export {} of {} wrote {} rows, {} bytes", job.id, job.type, job.rows, job.sizeBytes);
+        } catch (Exception ex) {
+            deleteQuietly(part);
+            job.finish(Status.FAILED, "Export failed");
+            log.error("Export {} of {} failed after {} rows", job.id, job.type, job.rows, ex);
+        }
+    }
+
+    private void write(Job job, OutputStream out) throws IOException {
+        if (job.type == Type.PRODUCTS) {
+            productCsvExporter.exportAll(out, rows -> job.rows = rows);
+            return;
+        }
+        // same format as GET /api/bids with Accept: application/x-ndjson
+        bidService.streamBids(new BidFilterDto(), bid -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(bid));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            job.rows++;
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete export file {}", file, ex);
+        }
+    }
+
+    private static final class Job {
+        private final String id;
+        private final Type type;
+        private final Path file;
+        private final Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+
+        // written by the worker thread only, read by anyone
+        private volatile Status status = Status.QUEUED;
+        private volatile long rows;
+        private volatile Long totalRows;
+        private volatile Long sizeBytes;
+        private volatile String error;
+        // set last, so a job with a finish time has all its other fields in place
+        private volatile Timestamp finishedAt;
+
+        private Job(String id, Type type, Path file) {
+            this.id = id;
+            this.type = type;
+            this.file = file;
+        }
+
+        private boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        private void finish(Status status, String error) {
+            this.error = error;
+            this.status = status;
+            this.finishedAt = new Timestamp(System.currentTimeMillis());
+        }
+
+        private ExportJobDto toDto() {
+            Status current = status;
+            return ExportJobDto.builder()
+                    .id(id)
+                    .type(type.name().toLowerCase(Locale.ROOT))
+                    .status(current.name())
+                    .rows(rows)
+                    .totalRows(totalRows)
+                    .sizeBytes(current == Status.DONE ? sizeBytes : null)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .downloadUrl(current == Status.DONE ? "/api/exports/" + id + "/download" : null)
+                    .build();
+        }
+    }
+}
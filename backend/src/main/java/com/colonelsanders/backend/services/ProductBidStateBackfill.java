@@ -0,0 +1,54 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.SchemaMigration;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.database.repositories.SchemaMigrationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Computes highest bid and bid count for products that predate those columns,
+ * and makes sure new products start with a bid count of 0.
+ * Runs once, during startup, and is then recorded as a {@link SchemaMigration}.
+ * {@link BidJournal} depends on it, so neither a journal replay nor a new bid
+ * increments a count that has not been backfilled yet.
+ */
+@Component
+public class ProductBidStateBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBidStateBackfill.class);
+
+    private static final String NAME = "product-bid-state";
+
+    private final ProductRepository productRepository;
+    private final SchemaMigrationRepository schemaMigrationRepository;
+
+    public ProductBidStateBackfill(ProductRepository productRepository,
+                                   SchemaMigrationRepository schemaMigrationRepository) {
+        this.productRepository = productRepository;
+        this.schemaMigrationRepository = schemaMigrationRepository;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        if (schemaMigrationRepository.existsById(NAME)) {
+            return;
+        }
+        // the bid columns are never written from the entity, so a new product gets its count from the column default
+        productRepository.setBidCountDefault();
+        int updated = productRepository.backfillBidState();
+        if (updated > 0) {
+            log.info("Backfilled bid state for {} products", updated);
+        }
+        // recorded last: both statements above are safe to run again if startup stops in between
+        SchemaMigration migration = new SchemaMigration();
+        migration.setName(NAME);
+        migration.setAppliedAt(Timestamp.from(Instant.now()));
+        schemaMigrationRepository.save(migration);
+    }
+}
@@ -0,0 +1,105 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.repositories.ProductExportRow;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes products as CSV, one line per product with the type, the highest
+ * bid and the highest bidder's email. The full export reads a single joined
+ * query through a database cursor and writes each row as it arrives, so
+ * memory use does not depend on the size of the catalog and the first bytes
+ * go out before the last row is read.
+ */
+@Component
+public class ProductCsvExporter {
+
+    static final String HEADER = "type, model, serial, description, starting price, email, final price\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ProductRepository productRepository;
+
+    public ProductCsvExporter(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Writes the header and every product to {@code out}, flushing but not
+     * closing it.
+     *
+     * @return the number of products written
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream out) throws IOException {
+        return exportAll(out, rows -> {});
+    }
+
+    /**
+     * Same as {@link #exportAll(OutputStream)}, reporting the number of
+     * products written so far to {@code progress} after each one.
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream out, LongConsumer progress) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(HEADER);
+        // the header goes out while the database is still working on the first rows
+        writer.flush();
+        long rows = 0;
+        try (Stream<ProductExportRow> products = productRepository.streamExportRows()) {
+            for (ProductExportRow product : (Iterable<ProductExportRow>) products::iterator) {
+                appendRow(writer, product);
+                progress.accept(++rows);
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /** The header and a single product's line. */
+    public String export(ProductExportRow product) {
+        StringBuilder sb = new StringBuilder(HEADER);
+        try {
+            appendRow(sb, product);
+        } catch (IOException ex) {
+            // a StringBuilder does not throw
+            throw new UncheckedIOException(ex);
+        }
+        return sb.toString();
+    }
+
+    private static void appendRow(Appendable out, ProductExportRow product) throws IOException {
+        out.append(escapeCsv(product.typeName())).append(", ")
+           .append(escapeCsv(product.model())).append(", ")
+           .append(escapeCsv(product.serial())).append(", ")
+           .append(escapeCsv(product.description())).append(", ")
+           .append(plain(product.startingPrice())).append(", ")
+           .append(escapeCsv(product.bidderEmail())).append(", ")
+           .append(plain(product.highestBidPrice())).append('\n');
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,116 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.models.ProductType;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.database.repositories.ProductTypeRepository;
+import com.colonelsanders.backend.dto.ProductFacetsDto;
+import com.colonelsanders.backend.dto.ProductTypeFacetDto;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Product counts per product type and open/closed state, kept in memory.
+ * The counters are seeded from the product table once at startup and then
+ * follow {@link ProductChangedEvent}s: a new product adds one to its facet,
+ * and a close or type change moves one count from the old facet to the new
+ * one. Reading the counts never touches the database.
+ */
+@Component
+public class ProductFacets {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacets.class);
+
+    private final ProductRepository productRepository;
+    private final ProductTypeRepository productTypeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // everything below is guarded by this; updates are rare and a read has to see a consistent set of counts
+    private final Map<Long, Facet> facetByProductId = new HashMap<>();
+    private final Map<Facet, Long> counts = new HashMap<>();
+    private final Map<Long, String> typeNames = new HashMap<>();
+
+    public ProductFacets(ProductRepository productRepository,
+                         ProductTypeRepository productTypeRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productTypeRepository = productTypeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        facetByProductId.clear();
+        counts.clear();
+        typeNames.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (ProductType type : productTypeRepository.findAll()) {
+                typeNames.put(type.getId(), type.getName());
+            }
+            try (Stream<ProductRepository.FacetKey> products = productRepository.streamFacetKeys()) {
+                products.forEach(product -> move(product.getId(),
+                        new Facet(product.getTypeId(), Boolean.TRUE.equals(product.getClosed()))));
+            }
+        });
+        log.info("Counted {} products in {} facets", facetByProductId.size(), counts.size());
+    }
+
+    public synchronized ProductFacetsDto get() {
+        // ordered by type id, with untyped products last
+        Map<Long, ProductTypeFacetDto> types = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        long open = 0;
+        long closed = 0;
+        for (Map.Entry<Facet, Long> entry : counts.entrySet()) {
+            Facet facet = entry.getKey();
+            long count = entry.getValue();
+            ProductTypeFacetDto type = types.computeIfAbsent(facet.typeId(), id ->
+                    ProductTypeFacetDto.builder().typeId(id).typeName(id == null ? null : typeNames.get(id)).build());
+            if (facet.closed()) {
+                type.setClosed(type.getClosed() + count);
+                closed += count;
+            } else {
+                type.setOpen(type.getOpen() + count);
+                open += count;
+            }
+        }
+        return new ProductFacetsDto(open + closed, open, closed, new ArrayList<>(types.values()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        ProductType type = product.getProductType();
+        if (type != null) {
+            typeNames.put(type.getId(), type.getName());
+        }
+        move(product.getId(), new Facet(type == null ? null : type.getId(), Boolean.TRUE.equals(product.getClosed())));
+    }
+
+    // caller holds the monitor
+    private void move(Long productId, Facet facet) {
+        Facet previous = facetByProductId.put(productId, facet);
+        if (facet.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            counts.computeIfPresent(previous, (key, count) -> count == 1 ? null : count - 1);
+        }
+        counts.merge(facet, 1L, Long::sum);
+    }
+
+    private record Facet(Long typeId, boolean closed) {}
+}
@@ -1,6 +1,10 @@
 package com.colonelsanders.backend.services;
 
+import com.colonelsanders.backend.cache.TtlCache;
 import com.colonelsanders.backend.database.models.Product;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.minio.BucketExistsArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
@@ -9,11 +13,15 @@ import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.http.Method;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -24,16 +32,29 @@ public class ProductImageStorageService {
     private final String bucket;
     private final int urlExpirySeconds;
 
+    // object key -> presigned URL. Entries live for half of the URL expiry, so a
+    // cached URL always has at least that long left when it is handed out.
+    // Object keys are never reused, so entries do not need invalidating.
+    private final TtlCache<String, String> presignedUrls;
+
     public ProductImageStorageService(
             MinioClient minioClient,
             @Qualifier("publicMinioClient") MinioClient publicMinioClient,
             @Value("${minio.bucket.name}") String bucket,
-            @Value("${minio.url-expiry-seconds}") int urlExpirySeconds
+            @Value("${minio.url-expiry-seconds}") int urlExpirySeconds,
+            @Value("${minio.url-cache.max-entries:10000}") int urlCacheMaxEntries,
+            MeterRegistry meterRegistry
     ) {
         this.minioClient = minioClient;
         this.publicMinioClient = publicMinioClient;
         this.bucket = bucket;
         this.urlExpirySeconds = urlExpirySeconds;
+        this.presignedUrls = new TtlCache<>(urlExpirySeconds * 1000L / 2, urlCacheMaxEntries);
+
+        FunctionCounter.builder("minio.url-cache.hits", presignedUrls, TtlCache::hitCount).register(meterRegistry);
+        FunctionCounter.builder("minio.url-cache.misses", presignedUrls, TtlCache::missCount).register(meterRegistry);
+        FunctionCounter.builder("minio.url-cache.evictions", presignedUrls, TtlCache::evictionCount).register(meterRegistry);
+        Gauge.builder("minio.url-cache.entries", presignedUrls, TtlCache::size).register(meterRegistry);
     }
 
     public String uploadProductImage(Product product, MultipartFile file) {
@@ -65,6 +86,30 @@ public class ProductImageStorageService {
         if (objectKey == null || objectKey.isBlank()) {
             return null;
         }
+        return presignedUrls.computeIfAbsent(objectKey, this::presign);
+    }
+
+    /**
+     * Presigned URLs for many objects at once, keyed by object key. Null and
+     * blank keys are skipped. Keys that are not cached are signed locally, as
+     * the public client has a fixed region and needs no request to MinIO.
+     */
+    public Map<String, String> getPresignedUrls(Collection<String> objectKeys) {
+        Map<String, String> urls = new HashMap<>();
+        for (String objectKey : objectKeys) {
+            if (objectKey != null && !objectKey.isBlank() && !urls.containsKey(objectKey)) {
+                urls.put(objectKey, getPresignedUrl(objectKey));
+            }
+        }
+        return urls;
+    }
+
+    @Scheduled(fixedDelayString = "${minio.url-cache.evict-interval-ms:60000}")
+    public void evictExpiredUrls() {
+        presignedUrls.evictExpired();
+    }
+
+    private String presign(String objectKey) {
         try {
             return publicMinioClient.getPresignedObjectUrl(
                     GetPresignedObjectUrlArgs.builder()
@@ -5,11 +5,14 @@ import com.colonelsanders.backend.database.models.ProductType;
 import com.colonelsanders.backend.database.repositories.ProductRepository;
 import com.colonelsanders.backend.database.repositories.ProductTypeRepository;
 import com.colonelsanders.backend.dto.ProductImportResultDto;
+import com.colonelsanders.backend.events.ProductChangedEvent;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
@@ -19,6 +22,8 @@ import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -29,13 +34,25 @@ public class ProductImportService {
 
     private final ProductRepository productRepository;
     private final ProductTypeRepository productTypeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
-    public ProductImportService(ProductRepository productRepository, ProductTypeRepository productTypeRepository) {
+    public ProductImportService(ProductRepository productRepository, ProductTypeRepository productTypeRepository,
+                                ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
         this.productTypeRepository = productTypeRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    /**
+     * Imports every row in its own transaction. A row's {@code updatedAt} is
+     * stamped just before it commits, which keeps the change feed's settle
+     * window far larger than the gap between the two; one transaction over a
+     * large file could commit long after its first rows were stamped. The
+     * import is therefore not all-or-nothing: rows that fail are reported and
+     * skipped, the others are imported, and the result is marked partial.
+     */
     public ProductImportResultDto importCsv(MultipartFile file) throws IOException {
         int processed = 0;
         int created = 0;
@@ -64,27 +81,32 @@ public class ProductImportService {
                     String productTypeName = required(record, "Type");
                     String description = optional(record, "desc");
                     BigDecimal startingPrice = parseStartingPrice(required(record, "st_price"));
-
-                    ProductType productType = resolveProductType(productTypeName);
-
-                    Optional<Product> existing = productRepository.findBySerial(serial);
-                    Product product = existing.orElseGet(Product::new);
-                    boolean isNew = existing.isEmpty();
-
-                    product.setSerial(serial);
-                    product.setModel(model);
-                    product.setDescription(description);
-                    product.setClosed(false);
-                    product.setProductType(productType);
-                    product.setStartingPrice(startingPrice);
-
-                    Timestamp now = Timestamp.from(Instant.now());
-                    if (isNew) {
-                        product.setCreatedAt(now);
-                    }
-                    product.setUpdatedAt(now);
-
-                    productRepository.save(product);
+                    Timestamp actionEndDate = parseEndDate(optional(record, "end_date"));
+
+                    boolean isNew = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                        ProductType productType = resolveProductType(productTypeName);
+
+                        Optional<Product> existing = productRepository.findBySerial(serial);
+                        Product product = existing.orElseGet(Product::new);
+
+                        product.setSerial(serial);
+                        product.setModel(model);
+                        product.setDescription(description);
+                        product.setClosed(false);
+                        product.setProductType(productType);
+                        product.setStartingPrice(startingPrice);
+                        product.setActionEndDate(actionEndDate);
+
+                        Timestamp now = Timestamp.from(Instant.now());
+                        if (existing.isEmpty()) {
+                            product.setCreatedAt(now);
+                        }
+                        product.setUpdatedAt(now);
+
+                        Product saved = productRepository.save(product);
+                        eventPublisher.publishEvent(new ProductChangedEvent(saved));
+                        return existing.isEmpty();
+                    }));
                     if (isNew) {
                         created++;
                     } else {
@@ -102,6 +124,7 @@ public class ProductImportService {
                 .created(created)
                 .updated(updated)
                 .failed(failed)
+                .partial(failed > 0 && created + updated > 0)
                 .errors(errors)
                 .build();
     }
@@ -140,6 +163,22 @@ public class ProductImportService {
         return value == null || value.isBlank() ? null : value.trim();
     }
 
+    // end_date is optional; accepts an ISO instant (2026-03-01T12:00:00Z) or a local date-time in the server zone
+    private Timestamp parseEndDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Timestamp.from(Instant.parse(value));
+        } catch (DateTimeParseException ex) {
+            try {
+                return Timestamp.valueOf(LocalDateTime.parse(value));
+            } catch (DateTimeParseException nested) {
+                throw new IllegalArgumentException("Field 'end_date' must be an ISO-8601 date-time");
+            }
+        }
+    }
+
     private BigDecimal parseStartingPrice(String value) {
         try {
             return new BigDecimal(value);
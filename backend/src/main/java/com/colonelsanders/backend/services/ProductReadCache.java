@@ -0,0 +1,101 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.cache.TtlCache;
+import com.colonelsanders.backend.dto.CursorPageDto;
+import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches product DTOs by id and product listing pages by their query.
+ * Products only change through import, close and image upload, which all
+ * publish {@link ProductChangedEvent}; the event drops that product's entry
+ * and every cached page, since any change can move rows between pages. The
+ * TTL only bounds how long an entry can outlive a change made outside the
+ * application.
+ * <p>
+ * A load that started before an invalidation is not cached, so a page read
+ * from the database just before a commit cannot be stored after the event
+ * that should have removed it.
+ */
+@Component
+public class ProductReadCache {
+
+    private final TtlCache<Long, ProductDto> products;
+    private final TtlCache<String, CursorPageDto<ProductDto>> pages;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductReadCache(
+            MeterRegistry meterRegistry,
+            @Value("${products.cache.ttl-ms:60000}") long ttlMillis,
+            @Value("${products.cache.max-entries:10000}") int maxEntries,
+            @Value("${products.cache.max-pages:1000}") int maxPages
+    ) {
+        this.products = new TtlCache<>(ttlMillis, maxEntries);
+        this.pages = new TtlCache<>(ttlMillis, maxPages);
+        register(meterRegistry, "product", products);
+        register(meterRegistry, "product-page", pages);
+    }
+
+    public Optional<ProductDto> getProduct(Long id, Supplier<Optional<ProductDto>> loader) {
+        ProductDto cached = products.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long loadedAt = generation.get();
+        Optional<ProductDto> loaded = loader.get();
+        loaded.ifPresent(product -> store(products, id, product, loadedAt));
+        return loaded;
+    }
+
+    public CursorPageDto<ProductDto> getPage(String key, Supplier<CursorPageDto<ProductDto>> loader) {
+        CursorPageDto<ProductDto> cached = pages.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedAt = generation.get();
+        CursorPageDto<ProductDto> loaded = loader.get();
+        store(pages, key, loaded, loadedAt);
+        return loaded;
+    }
+
+    /**
+     * Drops the product and every cached page. Called by {@link CatalogVersion}
+     * for each {@link ProductChangedEvent}, before it moves the version.
+     */
+    public void invalidate(Long productId) {
+        // bumped first, so a load racing with this either sees the new generation or has its entry removed below
+        generation.incrementAndGet();
+        products.invalidate(productId);
+        pages.invalidateAll();
+    }
+
+    @Scheduled(fixedDelayString = "${products.cache.evict-interval-ms:60000}")
+    public void evictExpired() {
+        products.evictExpired();
+        pages.evictExpired();
+    }
+
+    private <K, V> void store(TtlCache<K, V> cache, K key, V value, long loadedAt) {
+        cache.put(key, value);
+        if (generation.get() != loadedAt) {
+            cache.remove(key, value);
+        }
+    }
+
+    private static void register(MeterRegistry meterRegistry, String name, TtlCache<?, ?> cache) {
+        FunctionCounter.builder("products.cache.hits", cache, TtlCache::hitCount).tag("cache", name).register(meterRegistry);
+        FunctionCounter.builder("products.cache.misses", cache, TtlCache::missCount).tag("cache", name).register(meterRegistry);
+        FunctionCounter.builder("products.cache.evictions", cache, TtlCache::evictionCount).tag("cache", name).register(meterRegistry);
+        Gauge.builder("products.cache.entries", cache, TtlCache::size).tag("cache", name).register(meterRegistry);
+    }
+}
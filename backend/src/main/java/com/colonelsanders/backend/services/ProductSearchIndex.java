@@ -0,0 +1,237 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product model, description, serial and type
+ * name. Terms are kept in a sorted map so a query token matches every term
+ * it is a prefix of; each term points at a sorted {@code int[]} of document
+ * numbers. A query matches the products that contain all of its tokens.
+ * <p>
+ * Documents are numbered in the order products are first indexed, which at
+ * startup is id order. The index is built once at startup and then follows
+ * {@link ProductChangedEvent}s.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // everything below is guarded by lock
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private long[] productIds = new long[1024];
+    private String[][] docTerms = new String[1024][];
+    private int docCount;
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docByProductId.clear();
+            docCount = 0;
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ProductRepository.SearchText> products = productRepository.streamSearchText()) {
+                    products.forEach(product -> index(product.getId(), terms(
+                            product.getModel(), product.getDescription(), product.getSerial(), product.getTypeName())));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} products with {} search terms", docCount, postings.size());
+    }
+
+    /**
+     * Ids of up to {@code limit} products that contain a term starting with
+     * each token of {@code query}, in the order they were indexed.
+     */
+    public List<Long> search(String query, int limit) {
+        String[] tokens = terms(query);
+        if (tokens.length == 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            long[] matches = null;
+            for (String token : tokens) {
+                long[] tokenMatches = new long[(docCount + 63) >>> 6];
+                for (Postings termPostings : postings.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+                    termPostings.orInto(tokenMatches);
+                }
+                if (matches == null) {
+                    matches = tokenMatches;
+                } else {
+                    for (int i = 0; i < matches.length; i++) {
+                        matches[i] &= tokenMatches[i];
+                    }
+                }
+            }
+
+            List<Long> result = new ArrayList<>(Math.min(limit, 64));
+            for (int word = 0; word < matches.length && result.size() < limit; word++) {
+                long bits = matches[word];
+                while (bits != 0 && result.size() < limit) {
+                    result.add(productIds[(word << 6) + Long.numberOfTrailingZeros(bits)]);
+                    bits &= bits - 1;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        String[] terms = terms(product.getModel(), product.getDescription(), product.getSerial(),
+                product.getProductType() == null ? null : product.getProductType().getName());
+
+        lock.writeLock().lock();
+        try {
+            index(product.getId(), terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Lower-cased, de-duplicated and sorted tokens of the given text fields. */
+    static String[] terms(String... fields) {
+        TreeSet<String> terms = new TreeSet<>();
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            // a token is a run of letters and digits; scanned by hand as this runs for every product at startup
+            String text = field.toLowerCase(Locale.ROOT);
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean inToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+                if (inToken && start < 0) {
+                    start = i;
+                } else if (!inToken && start >= 0) {
+                    terms.add(text.substring(start, i));
+                    start = -1;
+                }
+            }
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    // caller holds the write lock
+    private void index(Long productId, String[] terms) {
+        Integer existing = docByProductId.get(productId);
+        if (existing != null) {
+            // closing or attaching an image does not touch the text, so most updates stop here
+            if (Arrays.equals(docTerms[existing], terms)) {
+                return;
+            }
+            for (String term : docTerms[existing]) {
+                Postings termPostings = postings.get(term);
+                termPostings.remove(existing);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        int doc = existing != null ? existing : newDoc(productId);
+        docTerms[doc] = terms;
+        for (String term : terms) {
+            postings.computeIfAbsent(term, t -> new Postings()).add(doc);
+        }
+    }
+
+    private int newDoc(Long productId) {
+        if (docCount == productIds.length) {
+            productIds = Arrays.copyOf(productIds, docCount * 2);
+            docTerms = Arrays.copyOf(docTerms, docCount * 2);
+        }
+        int doc = docCount++;
+        productIds[doc] = productId;
+        docByProductId.put(productId, doc);
+        return doc;
+    }
+
+    /** Sorted, growable list of document numbers for one term. */
+    static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            // documents are mostly added in increasing order, so this is usually an append
+            int at = size > 0 && docs[size - 1] < doc ? size : Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0 && at < size) {
+                return;
+            }
+            int insertAt = at >= 0 ? at : -at - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+            docs[insertAt] = doc;
+            size++;
+        }
+
+        void remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            size--;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void orInto(long[] bits) {
+            for (int i = 0; i < size; i++) {
+                bits[docs[i] >>> 6] |= 1L << docs[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.SchemaMigration;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.database.repositories.SchemaMigrationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Fills the sort keys of products written before they were required
+ * ({@code updatedAt}, {@code createdAt} and {@code startingPrice}) and then
+ * makes those columns NOT NULL, so the listing and the change feed can read
+ * their {@code (key, id)} indexes in plain order instead of placing null keys
+ * first or last. Runs once, during startup, and is then recorded as a
+ * {@link SchemaMigration}; {@link BidJournal} replay waits for it.
+ */
+@Component
+public class ProductSortKeyBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSortKeyBackfill.class);
+
+    private static final String NAME = "product-sort-keys";
+
+    private final ProductRepository productRepository;
+    private final SchemaMigrationRepository schemaMigrationRepository;
+
+    public ProductSortKeyBackfill(ProductRepository productRepository,
+                                  SchemaMigrationRepository schemaMigrationRepository) {
+        this.productRepository = productRepository;
+        this.schemaMigrationRepository = schemaMigrationRepository;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        if (schemaMigrationRepository.existsById(NAME)) {
+            return;
+        }
+        Timestamp epoch = new Timestamp(0);
+        int updated = productRepository.backfillUpdatedAt(epoch)
+                + productRepository.backfillCreatedAt(epoch)
+                + productRepository.backfillStartingPrice();
+        productRepository.requireUpdatedAt();
+        productRepository.requireCreatedAt();
+        productRepository.requireStartingPrice();
+        if (updated > 0) {
+            log.info("Backfilled {} missing sort keys on products", updated);
+        }
+        SchemaMigration migration = new SchemaMigration();
+        migration.setName(NAME);
+        migration.setAppliedAt(Timestamp.from(Instant.now()));
+        schemaMigrationRepository.save(migration);
+    }
+}
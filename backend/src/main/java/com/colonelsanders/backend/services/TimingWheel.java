@@ -0,0 +1,128 @@
+package com.colonelsanders.backend.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Each level has {@code wheelSize} buckets of
+ * {@code tickMs}; timers too far out for a level go to a lazily created
+ * overflow level whose tick is the whole span of the level below. Only
+ * non-empty buckets are put on the shared {@link DelayQueue}, so the
+ * driving thread sleeps until the next bucket is due instead of ticking
+ * through empty slots. When an overflow bucket expires its entries are
+ * re-added and cascade down to a finer level.
+ * <p>
+ * Not thread-safe; callers serialize access.
+ */
+final class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final Bucket[] buckets;
+    private final DelayQueue<Bucket> queue;
+
+    private long currentTime;
+    private TimingWheel overflowWheel;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs, DelayQueue<Bucket> queue) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.queue = queue;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Adds the entry to the bucket covering its expiration.
+     *
+     * @return false if the entry is already due and should be fired by the caller
+     */
+    boolean add(Entry entry) {
+        long expiration = entry.expirationMs;
+        if (expiration < currentTime + tickMs) {
+            return false;
+        }
+        if (expiration < currentTime + interval) {
+            long virtualId = expiration / tickMs;
+            Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+            bucket.entries.add(entry);
+            // a bucket is reused once the wheel has turned past it; re-queue it with its new expiration
+            if (bucket.setExpiration(virtualId * tickMs)) {
+                queue.offer(bucket);
+            }
+            return true;
+        }
+        return overflowWheel().add(entry);
+    }
+
+    void advanceClock(long timeMs) {
+        if (timeMs >= currentTime + tickMs) {
+            currentTime = timeMs - (timeMs % tickMs);
+            if (overflowWheel != null) {
+                overflowWheel.advanceClock(currentTime);
+            }
+        }
+    }
+
+    private TimingWheel overflowWheel() {
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel(interval, wheelSize, currentTime, queue);
+        }
+        return overflowWheel;
+    }
+
+    /** A scheduled expiration for one key. */
+    record Entry(long key, long expirationMs) {}
+
+    static final class Bucket implements Delayed {
+        private final List<Entry> entries = new ArrayList<>();
+        private volatile long expiration = -1;
+
+        private boolean setExpiration(long expirationMs) {
+            if (expiration == expirationMs) {
+                return false;
+            }
+            expiration = expirationMs;
+            return true;
+        }
+
+        long getExpiration() {
+            return expiration;
+        }
+
+        /** Removes every entry from the bucket and hands it to {@code consumer}. */
+        void flush(Consumer<Entry> consumer) {
+            List<Entry> flushed = new ArrayList<>(entries);
+            entries.clear();
+            expiration = -1;
+            flushed.forEach(consumer);
+        }
+
+        /** Builds a bucket that is due immediately, for entries whose time has already passed. */
+        static Bucket due(List<Entry> entries, long nowMs) {
+            Bucket bucket = new Bucket();
+            bucket.entries.addAll(entries);
+            bucket.expiration = nowMs;
+            return bucket;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiration - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiration, ((Bucket) other).expiration);
+        }
+    }
+}
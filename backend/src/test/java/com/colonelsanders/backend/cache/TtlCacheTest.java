@@ -0,0 +1,132 @@
+package com.colonelsanders.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TtlCacheTest {
+
+    @Test
+    void putIfAbsent_keepsFirstLiveValue() {
+        TtlCache<String, String> cache = new TtlCache<>(60_000, 10);
+
+        assertNull(cache.putIfAbsent("k", "first"));
+        assertEquals("first", cache.putIfAbsent("k", "second"));
+        assertEquals("first", cache.get("k"));
+        assertEquals(2, cache.hitCount());
+    }
+
+    @Test
+    void get_dropsExpiredEntries() throws InterruptedException {
+        TtlCache<String, String> cache = new TtlCache<>(5, 10);
+        cache.put("k", "v");
+
+        Thread.sleep(20);
+
+        assertNull(cache.get("k"));
+        assertNull(cache.putIfAbsent("k", "fresh"));
+        assertEquals("fresh", cache.get("k"));
+    }
+
+    @Test
+    void put_evictsOldestInsertionOverCapacity() {
+        TtlCache<String, Integer> cache = new TtlCache<>(60_000, 2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("a"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void put_reinsertedKeyIsNotEvictedByItsEarlierInsertion() {
+        TtlCache<String, Integer> cache = new TtlCache<>(60_000, 2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.invalidate("a");
+        cache.put("a", 3);
+        cache.put("c", 4);
+
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(4, cache.get("c"));
+    }
+
+    @Test
+    void computeIfAbsent_countsOneMissPerLoadAndOneHitPerCachedRead() {
+        TtlCache<String, String> cache = new TtlCache<>(60_000, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v", cache.computeIfAbsent("k", key -> {
+            loads.incrementAndGet();
+            return "v";
+        }));
+        assertEquals(1, cache.missCount());
+        assertEquals(0, cache.hitCount());
+
+        assertEquals("v", cache.computeIfAbsent("k", key -> "other"));
+        assertEquals("v", cache.computeIfAbsent("k", key -> "other"));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.missCount());
+        assertEquals(2, cache.hitCount());
+    }
+
+    @Test
+    void computeIfAbsent_keepsTheValueStoredWhileLoading() {
+        TtlCache<String, String> cache = new TtlCache<>(60_000, 10);
+
+        String value = cache.computeIfAbsent("k", key -> {
+            cache.put(key, "raced");
+            return "loaded";
+        });
+
+        assertEquals("raced", value);
+        assertEquals(1, cache.missCount());
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    void put_churnOnAFewKeysKeepsTheInsertionQueueBounded() {
+        TtlCache<String, Integer> cache = new TtlCache<>(60_000, 10);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("k" + (i % 5), i);
+            if (i % 2 == 0) {
+                cache.invalidate("k" + (i % 5));
+            }
+        }
+
+        assertTrue(cache.queuedCount() <= 2 * 64 + 1, "queued " + cache.queuedCount());
+        assertTrue(cache.size() <= 5);
+    }
+
+    @Test
+    void remove_onlyRemovesMatchingValue() {
+        TtlCache<String, String> cache = new TtlCache<>(60_000, 10);
+        String value = "v";
+        cache.put("k", value);
+
+        assertFalse(cache.remove("k", "other"));
+        assertTrue(cache.remove("k", value));
+        assertNull(cache.get("k"));
+    }
+
+    @Test
+    void evictExpired_removesEverythingPastItsTtl() throws InterruptedException {
+        TtlCache<String, String> cache = new TtlCache<>(5, 10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        Thread.sleep(20);
+        cache.evictExpired();
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.evictionCount());
+    }
+}
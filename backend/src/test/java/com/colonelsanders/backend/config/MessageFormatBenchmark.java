@@ -0,0 +1,101 @@
+package com.colonelsanders.backend.config;
+
+import com.colonelsanders.backend.dto.AppUserDto;
+import com.colonelsanders.backend.dto.BidDto;
+import com.colonelsanders.backend.dto.CursorPageDto;
+import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.dto.ProductTypeDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares bytes on the wire and serialization time of JSON and CBOR for a
+ * full page of each list endpoint ({@code /api/products}, {@code /api/bids},
+ * {@code /api/users}), with and without gzip. Excluded from the regular test
+ * run; use {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+public class MessageFormatBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 2_000;
+    private static final String[] TYPES = {"Laptop", "Phone", "Tablet", "Monitor"};
+
+    private final ObjectMapper json = JsonMapper.builder().build();
+    private final ObjectMapper cbor = CBORMapper.builder().build();
+
+    @Test
+    void cborVersusJson_bytesAndSerializationTime() throws IOException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<ProductDto> products = new ArrayList<>(PAGE_SIZE);
+        List<BidDto> bids = new ArrayList<>(PAGE_SIZE);
+        List<AppUserDto> users = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            products.add(ProductDto.builder()
+                    .id((long) i)
+                    .productType(new ProductTypeDto((long) i % TYPES.length, TYPES[i % TYPES.length]))
+                    .model("Model " + i)
+                    .description("Refurbished, " + (i % 2000) + " cycles")
+                    .serial("SN" + (100_000_000 + i))
+                    .closed(i % 3 == 0)
+                    .imageObjectKey("products/" + i + "/3f2b9c1e-8a7d-4e6f-9b0a-1c2d3e4f5a6b.jpg")
+                    .startingPrice(BigDecimal.valueOf(1000 + i, 2))
+                    .actionEndDate(now)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            bids.add(new BidDto((long) i, (long) i % 50, (long) i % 200, "user" + (i % 200) + "@example.com",
+                    BigDecimal.valueOf(1000 + i, 2), now));
+            users.add(new AppUserDto((long) i, "user" + i + "@example.com", "USER", false));
+        }
+
+        compare("/api/products", CursorPageDto.<ProductDto>builder().items(products).nextCursor("aWQKYXNjCjQ5OQ").build());
+        compare("/api/bids", CursorPageDto.<BidDto>builder().items(bids).nextCursor("499").build());
+        compare("/api/users", users);
+    }
+
+    private void compare(String endpoint, Object page) throws IOException {
+        byte[] jsonBytes = json.writeValueAsBytes(page);
+        byte[] cborBytes = cbor.writeValueAsBytes(page);
+        double jsonMicros = measure(json, page);
+        double cborMicros = measure(cbor, page);
+
+        System.out.printf("%s, %d items: JSON %d B (%d B gzipped) in %.1f us, CBOR %d B (%d B gzipped) in %.1f us%n",
+                endpoint, PAGE_SIZE, jsonBytes.length, gzip(jsonBytes), jsonMicros,
+                cborBytes.length, gzip(cborBytes), cborMicros);
+        assertTrue(cborBytes.length < jsonBytes.length, endpoint + ": CBOR should be smaller than JSON");
+    }
+
+    private static double measure(ObjectMapper mapper, Object page) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            mapper.writeValueAsBytes(page);
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            mapper.writeValueAsBytes(page);
+        }
+        return (System.nanoTime() - start) / (MEASURED_ROUNDS * 1e3);
+    }
+
+    private static int gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
@@ -2,7 +2,11 @@ package com.colonelsanders.backend.controllers;
 
 import com.colonelsanders.backend.database.models.AppUser;
 import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.dto.BidDto;
 import com.colonelsanders.backend.dto.BidRequestDto;
+import com.colonelsanders.backend.services.BidIdempotencyCache;
+import com.colonelsanders.backend.services.BidRateLimiter;
+import com.colonelsanders.backend.services.BidSequencer;
 import com.colonelsanders.backend.services.BidService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
@@ -10,18 +14,38 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.dataformat.cbor.CBORMapper;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BidController.class)
@@ -33,6 +57,15 @@ public class BidControllerTest {
     @MockBean
     private BidService bidService;
 
+    @MockBean
+    private BidSequencer bidSequencer;
+
+    @MockBean
+    private BidRateLimiter bidRateLimiter;
+
+    @MockBean
+    private BidIdempotencyCache bidIdempotencyCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -67,4 +100,189 @@ public class BidControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(11));
     }
+
+    @Test
+    void createBid_overRateLimit_returnsTooManyRequests() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user@example.com", "x"));
+
+        BidRequestDto req = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        when(bidRateLimiter.tryAcquire("user@example.com", 1)).thenReturn(1_500_000_000L);
+
+        mvc.perform(post("/api/bids").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        verify(bidService, never()).createBid(any(), any());
+    }
+
+    @Test
+    void createBid_sequencerTimedOut_returnsServiceUnavailable() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user@example.com", "x"));
+
+        BidRequestDto req = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        when(bidSequencer.isEnabled()).thenReturn(true);
+        when(bidSequencer.submit(req, "user@example.com"))
+                .thenThrow(new RejectedExecutionException("Timed out waiting for bid to be processed, please retry"));
+
+        mvc.perform(post("/api/bids").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void createBid_withIdempotencyKey_goesThroughCache() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user@example.com", "x"));
+
+        BidRequestDto req = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        when(bidIdempotencyCache.execute(eq("user@example.com"), eq("retry-1"), eq(req), any()))
+                .thenAnswer(invocation -> ResponseEntity.status(HttpStatus.CREATED).body(java.util.Map.of("id", 11)));
+
+        mvc.perform(post("/api/bids").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "retry-1")
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(11));
+
+        verify(bidService, never()).createBid(any(), any());
+    }
+
+    @Test
+    void createBids_reportsStatusPerItem() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user@example.com", "x"));
+
+        List<BidRequestDto> reqs = List.of(
+                BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build(),
+                BidRequestDto.builder().productId(2L).price(new BigDecimal("10.00")).build());
+        when(bidRateLimiter.maxPermits()).thenReturn(10);
+        when(bidService.placeBids(reqs, "user@example.com")).thenReturn(List.of(
+                new BidService.BatchItem(1L, BidService.BatchItem.Status.REJECTED, null, "Cannot bid on a closed product"),
+                new BidService.BatchItem(2L, BidService.BatchItem.Status.FAILED, null, "Failed to save bid")));
+
+        mvc.perform(post("/api/bids/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reqs)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("REJECTED"))
+                .andExpect(jsonPath("$.items[1].productId").value(2));
+
+        verify(bidRateLimiter).tryAcquire("user@example.com", 2);
+    }
+
+    @Test
+    void createBids_overRateLimitForThatManyBids_returnsTooManyRequests() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user@example.com", "x"));
+
+        List<BidRequestDto> reqs = List.of(
+                BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build(),
+                BidRequestDto.builder().productId(2L).price(new BigDecimal("10.00")).build());
+        when(bidRateLimiter.maxPermits()).thenReturn(10);
+        when(bidRateLimiter.tryAcquire("user@example.com", 2)).thenReturn(500_000_000L);
+
+        mvc.perform(post("/api/bids/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reqs)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verify(bidService, never()).placeBids(any(), any());
+    }
+
+    @Test
+    void createBids_largerThanTheBurst_returnsBadRequest() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user@example.com", "x"));
+
+        List<BidRequestDto> reqs = List.of(
+                BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build(),
+                BidRequestDto.builder().productId(2L).price(new BigDecimal("10.00")).build());
+        when(bidRateLimiter.maxPermits()).thenReturn(1);
+
+        mvc.perform(post("/api/bids/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reqs)))
+                .andExpect(status().isBadRequest());
+
+        verify(bidRateLimiter, never()).tryAcquire(any(), anyInt());
+    }
+
+    @Test
+    void createBids_sequencerEnabled_goesThroughSequencer() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user@example.com", "x"));
+
+        List<BidRequestDto> reqs = List.of(BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build());
+        when(bidRateLimiter.maxPermits()).thenReturn(10);
+        when(bidSequencer.isEnabled()).thenReturn(true);
+        when(bidSequencer.submitAll(reqs, "user@example.com")).thenReturn(List.of(
+                new BidService.BatchItem(1L, BidService.BatchItem.Status.REJECTED, null, "Cannot bid on a closed product")));
+
+        mvc.perform(post("/api/bids/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reqs)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rejected").value(1));
+
+        verify(bidService, never()).placeBids(any(), any());
+    }
+
+    @Test
+    void createBids_emptyBatch_returnsBadRequest() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user@example.com", "x"));
+
+        mvc.perform(post("/api/bids/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static BidDto bidDto(long id) {
+        return BidDto.builder().id(id).productId(1L).appUserId(2L).appUserEmail("u@e.com").price(new BigDecimal("10.00")).build();
+    }
+
+    @Test
+    void getBids_fullPage_returnsNextCursor() throws Exception {
+        when(bidService.getBidPage(any(), eq(0L), eq(2))).thenReturn(List.of(bidDto(4L), bidDto(7L)));
+
+        mvc.perform(get("/api/bids").param("limit", "2").param("productId", "1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("7"));
+    }
+
+    @Test
+    void getBids_acceptCbor_returnsCborPage() throws Exception {
+        when(bidService.getBidPage(any(), eq(0L), eq(2))).thenReturn(List.of(bidDto(4L), bidDto(7L)));
+
+        MvcResult result = mvc.perform(get("/api/bids").param("limit", "2").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_CBOR_VALUE))
+                .andReturn();
+
+        JsonNode page = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertEquals(7L, page.get("items").get(1).get("id").asLong());
+        assertEquals("7", page.get("nextCursor").asString());
+    }
+
+    @Test
+    void getBids_lastPage_hasNoCursor() throws Exception {
+        when(bidService.getBidPage(any(), eq(7L), eq(50))).thenReturn(List.of(bidDto(9L)));
+
+        mvc.perform(get("/api/bids").param("cursor", "7").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getBids_ndjson_writesOneObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BidDto> consumer = invocation.getArgument(1);
+            consumer.accept(bidDto(1L));
+            consumer.accept(bidDto(2L));
+            return null;
+        }).when(bidService).streamBids(any(), any());
+
+        MvcResult result = mvc.perform(get("/api/bids").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"id\":2"));
+    }
 }
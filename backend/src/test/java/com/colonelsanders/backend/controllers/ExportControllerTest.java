@@ -0,0 +1,140 @@
+package com.colonelsanders.backend.controllers;
+
+import com.colonelsanders.backend.dto.ExportJobDto;
+import com.colonelsanders.backend.services.ExportJobs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ExportController.class)
+public class ExportControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private ExportJobs exportJobs;
+
+    @TempDir
+    Path directory;
+
+    private ExportJobDto job(String id, String status) {
+        return ExportJobDto.builder().id(id).type("products").status(status).build();
+    }
+
+    private Path finishedExport(String id) throws Exception {
+        Path file = Files.writeString(directory.resolve("export-" + id + ".csv.gz"), "0123456789");
+        when(exportJobs.get(id)).thenReturn(Optional.of(job(id, "DONE")));
+        when(exportJobs.file(id)).thenReturn(Optional.of(file));
+        return file;
+    }
+
+    @Test
+    void startExport_returnsAcceptedWithLocation() throws Exception {
+        when(exportJobs.start(ExportJobs.Type.PRODUCTS)).thenReturn(job("j1", "QUEUED"));
+
+        mvc.perform(post("/api/exports").contentType(MediaType.APPLICATION_JSON).content("{\"type\":\"products\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/exports/j1"))
+                .andExpect(jsonPath("$.id").value("j1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void startExport_unknownType_returns400() throws Exception {
+        mvc.perform(post("/api/exports").contentType(MediaType.APPLICATION_JSON).content("{\"type\":\"users\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(exportJobs, never()).start(any());
+    }
+
+    @Test
+    void startExport_tooManyActive_returns429() throws Exception {
+        when(exportJobs.start(ExportJobs.Type.BIDS)).thenThrow(new IllegalStateException("Too many exports in progress"));
+
+        mvc.perform(post("/api/exports").contentType(MediaType.APPLICATION_JSON).content("{\"type\":\"bids\"}"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void getExport_unknown_returns404() throws Exception {
+        when(exportJobs.get("nope")).thenReturn(Optional.empty());
+
+        mvc.perform(get("/api/exports/nope"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void download_notFinished_returns409() throws Exception {
+        when(exportJobs.get("j1")).thenReturn(Optional.of(job("j1", "RUNNING")));
+        when(exportJobs.file("j1")).thenReturn(Optional.empty());
+
+        mvc.perform(get("/api/exports/j1/download"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void download_withoutRange_sendsWholeFile() throws Exception {
+        finishedExport("j1");
+
+        mvc.perform(get("/api/exports/j1/download"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"export-j1.csv.gz\""))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void download_withRange_sendsThatSlice() throws Exception {
+        finishedExport("j1");
+
+        mvc.perform(get("/api/exports/j1/download").header(HttpHeaders.RANGE, "bytes=4-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "6"))
+                .andExpect(content().string("456789"));
+    }
+
+    @Test
+    void download_withStaleIfRange_sendsWholeFile() throws Exception {
+        finishedExport("j1");
+
+        mvc.perform(get("/api/exports/j1/download")
+                        .header(HttpHeaders.RANGE, "bytes=4-")
+                        .header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void download_rangePastTheEnd_returns416() throws Exception {
+        finishedExport("j1");
+
+        mvc.perform(get("/api/exports/j1/download").header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+}
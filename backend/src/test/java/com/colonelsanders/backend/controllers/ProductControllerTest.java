@@ -1,29 +1,74 @@
 package com.colonelsanders.backend.controllers;
 
 import com.colonelsanders.backend.database.models.Product;
-import com.colonelsanders.backend.database.repositories.BidRepository;
+import com.colonelsanders.backend.database.repositories.AppUserRepository;
+import com.colonelsanders.backend.database.repositories.ProductCursor;
 import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.database.repositories.ProductSort;
+import com.colonelsanders.backend.database.repositories.ProductWatermark;
+import com.colonelsanders.backend.dto.BidStatsDto;
+import com.colonelsanders.backend.dto.PriceBucketDto;
+import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.dto.ProductFacetsDto;
+import com.colonelsanders.backend.dto.ProductFilterDto;
 import com.colonelsanders.backend.dto.ProductImportResultDto;
+import com.colonelsanders.backend.dto.ProductSummaryDto;
+import com.colonelsanders.backend.dto.ProductTypeFacetDto;
+import com.colonelsanders.backend.services.BidStatistics;
+import com.colonelsanders.backend.services.BidStreamHub;
+import com.colonelsanders.backend.services.CatalogVersion;
+import com.colonelsanders.backend.services.ProductCsvExporter;
+import com.colonelsanders.backend.services.ProductFacets;
 import com.colonelsanders.backend.services.ProductImageStorageService;
 import com.colonelsanders.backend.services.ProductImportService;
+import com.colonelsanders.backend.services.ProductReadCache;
+import com.colonelsanders.backend.services.ProductSearchIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
@@ -42,28 +87,156 @@ public class ProductControllerTest {
     private ProductImageStorageService productImageStorageService;
 
     @MockBean
-    private BidRepository bidRepository;
+    private AppUserRepository appUserRepository;
+
+    @MockBean
+    private BidStreamHub bidStreamHub;
+
+    @MockBean
+    private BidStatistics bidStatistics;
+
+    @MockBean
+    private ProductSearchIndex productSearchIndex;
+
+    @MockBean
+    private ProductReadCache productReadCache;
+
+    @MockBean
+    private CatalogVersion catalogVersion;
+
+    @MockBean
+    private ProductFacets productFacets;
+
+    @MockBean
+    private ProductCsvExporter productCsvExporter;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void passThroughCache() {
+        when(productReadCache.getProduct(any(), any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
+        when(productReadCache.getPage(any(), any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
+        when(catalogVersion.productsETag(anyString())).thenAnswer(inv -> "W/\"v1-" + inv.getArgument(0) + "\"");
+        when(catalogVersion.productsAndBidsETag(anyString())).thenAnswer(inv -> "W/\"v1-1-" + inv.getArgument(0) + "\"");
+    }
+
     @Test
     void findAll_returnsProducts() throws Exception {
-        Product p = new Product();
-        p.setId(1L);
-        p.setModel("X");
-        p.setSerial("S1");
-        p.setClosed(false);
-        when(productRepository.findAll()).thenReturn(List.of(p));
+        ProductDto p = ProductDto.builder().id(1L).model("X").serial("S1").closed(false).build();
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false), isNull(), eq(50)))
+                .thenReturn(List.of(p));
+
+        mvc.perform(get("/api/products").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void findAll_anyAccept_returnsJson() throws Exception {
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false), isNull(), eq(50)))
+                .thenReturn(List.of(ProductDto.builder().id(1L).build()));
+
+        mvc.perform(get("/api/products").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_JSON_VALUE));
+    }
+
+    @Test
+    void findAll_acceptCbor_returnsCbor() throws Exception {
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false), isNull(), eq(50)))
+                .thenReturn(List.of(ProductDto.builder().id(1L).model("X").build()));
+
+        mvc.perform(get("/api/products").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_CBOR_VALUE))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v1-cbor\""));
+    }
+
+    @Test
+    void findAll_withImageUrls_presignsThePageInOneCall_andSkipsETag() throws Exception {
+        ProductDto withImage = ProductDto.builder().id(1L).imageObjectKey("products/1/a.jpg").build();
+        ProductDto withoutImage = ProductDto.builder().id(2L).build();
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false), isNull(), eq(50)))
+                .thenReturn(List.of(withImage, withoutImage));
+        when(productImageStorageService.getPresignedUrls(any()))
+                .thenReturn(Map.of("products/1/a.jpg", "http://url/a"));
+
+        mvc.perform(get("/api/products?imageUrls=true").header(HttpHeaders.IF_NONE_MATCH, "\"v1\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].imageUrl").value("http://url/a"))
+                .andExpect(jsonPath("$.items[1].imageUrl").doesNotExist());
+
+        verify(productImageStorageService, times(1)).getPresignedUrls(any());
+        verify(productImageStorageService, never()).getPresignedUrl(any());
+        // the cached DTO is left without the URL
+        assertNull(withImage.getImageUrl());
+    }
+
+    @Test
+    void findAll_withoutImageUrls_doesNotPresign() throws Exception {
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false), isNull(), eq(50)))
+                .thenReturn(List.of(ProductDto.builder().id(1L).imageObjectKey("products/1/a.jpg").build()));
 
         mvc.perform(get("/api/products").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1));
+                .andExpect(jsonPath("$.items[0].imageUrl").doesNotExist());
+
+        verify(productImageStorageService, never()).getPresignedUrls(any());
+    }
+
+    @Test
+    void findAll_fullPage_returnsCursorForNextPage() throws Exception {
+        ProductDto p1 = ProductDto.builder().id(3L).startingPrice(new BigDecimal("20.00")).build();
+        ProductDto p2 = ProductDto.builder().id(2L).startingPrice(new BigDecimal("10.00")).build();
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.STARTING_PRICE), eq(true), isNull(), eq(2)))
+                .thenReturn(List.of(p1, p2));
+        String expectedCursor = ProductCursor.after(p2, ProductSort.STARTING_PRICE, true).encode();
+
+        mvc.perform(get("/api/products?sort=startingPrice&direction=desc&closed=false&limit=2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(expectedCursor));
+
+        ArgumentCaptor<ProductFilterDto> filter = ArgumentCaptor.forClass(ProductFilterDto.class);
+        verify(productRepository).findPage(filter.capture(), eq(ProductSort.STARTING_PRICE), eq(true), isNull(), eq(2));
+        assertEquals(false, filter.getValue().getClosed());
+    }
+
+    @Test
+    void findAll_withCursor_seeksPastIt() throws Exception {
+        ProductDto last = ProductDto.builder().id(9L).build();
+        String cursor = ProductCursor.after(last, ProductSort.ID, false).encode();
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false),
+                eq(new ProductCursor(ProductSort.ID, false, null, 9L)), eq(50)))
+                .thenReturn(List.of());
+
+        mvc.perform(get("/api/products?cursor=" + cursor).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    void findAll_cursorFromOtherSort_returnsBadRequest() throws Exception {
+        ProductDto last = ProductDto.builder().id(9L).build();
+        String cursor = ProductCursor.after(last, ProductSort.ID, false).encode();
+
+        mvc.perform(get("/api/products?sort=createdAt&cursor=" + cursor).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findAll_unknownSort_returnsBadRequest() throws Exception {
+        mvc.perform(get("/api/products?sort=model").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void findById_notFound() throws Exception {
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findDtosById(List.of(1L))).thenReturn(List.of());
 
         mvc.perform(get("/api/products/1").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
@@ -71,12 +244,8 @@ public class ProductControllerTest {
 
     @Test
     void findById_found() throws Exception {
-        Product p = new Product();
-        p.setId(2L);
-        p.setModel("M");
-        p.setSerial("S2");
-        p.setClosed(false);
-        when(productRepository.findById(2L)).thenReturn(Optional.of(p));
+        ProductDto p = ProductDto.builder().id(2L).model("M").serial("S2").closed(false).build();
+        when(productRepository.findDtosById(List.of(2L))).thenReturn(List.of(p));
 
         mvc.perform(get("/api/products/2").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -148,5 +317,240 @@ public class ProductControllerTest {
         mvc.perform(post("/api/products/12/close"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.closed").value(true));
+        // the change feed picks up closes through updatedAt
+        assertNotNull(p.getUpdatedAt());
+    }
+
+    @Test
+    void streamBids_notFound_returnsNotFound() throws Exception {
+        when(productRepository.findById(20L)).thenReturn(Optional.empty());
+        mvc.perform(get("/api/products/20/bids/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void streamBids_openAuction_startsStream() throws Exception {
+        Product p = new Product();
+        p.setId(21L);
+        p.setClosed(false);
+        when(productRepository.findById(21L)).thenReturn(Optional.of(p));
+        when(bidStreamHub.subscribe(21L)).thenReturn(new SseEmitter());
+
+        mvc.perform(get("/api/products/21/bids/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void findSummaries_returnsTopBidsFromOnePageQuery() throws Exception {
+        ProductSummaryDto summary = ProductSummaryDto.builder().id(4L).model("X")
+                .highestBidPrice(new BigDecimal("150.00")).highestBidderId(9L).bidCount(3).build();
+        when(productRepository.findSummaryPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false), isNull(), eq(1)))
+                .thenReturn(List.of(summary));
+
+        mvc.perform(get("/api/products/summary?limit=1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v1-1-json\""))
+                .andExpect(jsonPath("$.items[0].highestBidPrice").value(150.00))
+                .andExpect(jsonPath("$.items[0].highestBidderId").value(9))
+                .andExpect(jsonPath("$.items[0].bidCount").value(3))
+                .andExpect(jsonPath("$.nextCursor").value(ProductCursor.after(summary, ProductSort.ID, false).encode()));
+
+        verify(productReadCache, never()).getPage(any(), any());
+    }
+
+    @Test
+    void findSummaries_matchingETag_returnsNotModified() throws Exception {
+        mvc.perform(get("/api/products/summary").header(HttpHeaders.IF_NONE_MATCH, "W/\"v1-1-json\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        verify(productRepository, never()).findSummaryPage(any(), any(), anyBoolean(), any(), anyInt());
+    }
+
+    @Test
+    void findSummaries_invalidSort_returnsBadRequest() throws Exception {
+        mvc.perform(get("/api/products/summary?sort=serial").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("sort must be one of id, createdAt, startingPrice"));
+    }
+
+    @Test
+    void findChanges_withoutWatermark_startsFromTheBeginning() throws Exception {
+        ProductDto p1 = ProductDto.builder().id(5L).build();
+        ProductDto p2 = ProductDto.builder().id(2L).updatedAt(Timestamp.from(Instant.parse("2026-03-01T10:00:00Z"))).build();
+        when(productRepository.findChanges(isNull(), any(Timestamp.class), eq(2))).thenReturn(List.of(p1, p2));
+
+        mvc.perform(get("/api/products/changes?limit=2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.watermark").value(ProductWatermark.after(p2).encode()))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void findChanges_nothingNew_returnsSameWatermark() throws Exception {
+        ProductWatermark since = new ProductWatermark(Timestamp.from(Instant.parse("2026-03-01T10:00:00Z")), 2L);
+        when(productRepository.findChanges(eq(since), any(Timestamp.class), eq(500))).thenReturn(List.of());
+
+        mvc.perform(get("/api/products/changes").param("since", since.encode()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0))
+                .andExpect(jsonPath("$.watermark").value(since.encode()))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void findChanges_holdsBackChangesThatMayNotBeCommittedYet() throws Exception {
+        when(productRepository.findChanges(isNull(), any(Timestamp.class), eq(500))).thenReturn(List.of());
+        Instant before = Instant.now();
+
+        mvc.perform(get("/api/products/changes").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<Timestamp> until = ArgumentCaptor.forClass(Timestamp.class);
+        verify(productRepository).findChanges(isNull(), until.capture(), eq(500));
+        assertTrue(until.getValue().toInstant().isBefore(before));
+    }
+
+    @Test
+    void findChanges_invalidWatermark_returnsBadRequest() throws Exception {
+        mvc.perform(get("/api/products/changes").param("since", "garbage").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid watermark"));
+    }
+
+    @Test
+    void getFacets_returnsCountsFromMemory() throws Exception {
+        when(productFacets.get()).thenReturn(new ProductFacetsDto(3, 2, 1,
+                List.of(new ProductTypeFacetDto(1L, "Laptop", 2, 1))));
+
+        mvc.perform(get("/api/products/facets").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.types[0].typeName").value("Laptop"))
+                .andExpect(jsonPath("$.types[0].open").value(2))
+                .andExpect(jsonPath("$.types[0].closed").value(1));
+
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void getStats_knownProduct_returnsStats() throws Exception {
+        BidStatsDto stats = new BidStatsDto(30L, 2, new BigDecimal("110"), new BigDecimal("130"),
+                new BigDecimal("120.00"), List.of(new PriceBucketDto(BigDecimal.ZERO, new BigDecimal("100"), 0)));
+        when(bidStatistics.get(30L)).thenReturn(Optional.of(stats));
+
+        mvc.perform(get("/api/products/30/stats").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.mean").value(120.00))
+                .andExpect(jsonPath("$.histogram[0].to").value(100));
+    }
+
+    @Test
+    void getStats_unknownProduct_returnsNotFound() throws Exception {
+        when(bidStatistics.get(31L)).thenReturn(Optional.empty());
+        mvc.perform(get("/api/products/31/stats").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void search_returnsMatchesInIndexOrder() throws Exception {
+        ProductDto p1 = ProductDto.builder().id(41L).build();
+        ProductDto p2 = ProductDto.builder().id(40L).build();
+        when(productSearchIndex.search("think", 20)).thenReturn(List.of(41L, 40L));
+        when(productRepository.findDtosById(List.of(41L, 40L))).thenReturn(List.of(p2, p1));
+
+        mvc.perform(get("/api/products/search?q=think").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(41))
+                .andExpect(jsonPath("$[1].id").value(40));
+    }
+
+    @Test
+    void search_blankQuery_returnsBadRequest() throws Exception {
+        mvc.perform(get("/api/products/search").param("q", " ").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findAll_setsETag_andAnswersMatchingIfNoneMatchWith304() throws Exception {
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false), isNull(), eq(50)))
+                .thenReturn(List.of());
+
+        mvc.perform(get("/api/products").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v1-json\""));
+
+        mvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, "W/\"v1-json\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+        verify(productRepository, times(1)).findPage(any(), any(), anyBoolean(), any(), anyInt());
+    }
+
+    @Test
+    void findAll_gzipAccepted_getsWeakETagAndVariesByAccept() throws Exception {
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false), isNull(), eq(50)))
+                .thenReturn(List.of());
+
+        // Tomcat only compresses responses without a strong ETag
+        mvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v1-json\""))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    void findAll_jsonETag_doesNotMatchTheCborResponse() throws Exception {
+        when(productRepository.findPage(any(ProductFilterDto.class), eq(ProductSort.ID), eq(false), isNull(), eq(50)))
+                .thenReturn(List.of());
+
+        mvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, "W/\"v1-json\"")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v1-cbor\""));
+    }
+
+    @Test
+    void findById_matchingETag_skipsRepositoryAndCache() throws Exception {
+        mvc.perform(get("/api/products/2").header(HttpHeaders.IF_NONE_MATCH, "W/\"v1-json\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        verify(productReadCache, never()).getProduct(any(), any());
+        verify(productRepository, never()).findDtosById(any());
+    }
+
+    @Test
+    void findById_staleETag_returnsProduct() throws Exception {
+        when(productRepository.findDtosById(List.of(2L))).thenReturn(List.of(ProductDto.builder().id(2L).build()));
+
+        mvc.perform(get("/api/products/2").header(HttpHeaders.IF_NONE_MATCH, "\"v0\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v1-json\""));
+    }
+
+    @Test
+    void exportAll_usesBidAwareETag() throws Exception {
+        mvc.perform(get("/api/products/export").header(HttpHeaders.IF_NONE_MATCH, "W/\"v1-1-csv\""))
+                .andExpect(status().isNotModified());
+
+        verify(productCsvExporter, never()).exportAll(any());
+    }
+
+    @Test
+    void exportAll_streamsCsvAttachment() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("type, model\nLaptop, X1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(productCsvExporter).exportAll(any());
+
+        MvcResult result = mvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.csv\""))
+                .andReturn();
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        assertEquals("type, model\nLaptop, X1\n", result.getResponse().getContentAsString());
+        verify(productRepository, never()).findAll();
     }
 }
@@ -0,0 +1,61 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCursorTest {
+
+    private static ProductDto product(long id) {
+        return ProductDto.builder().id(id).build();
+    }
+
+    @Test
+    void roundTrip_keepsSortKeyAndId() {
+        ProductDto product = product(7L);
+        product.setCreatedAt(Timestamp.from(Instant.parse("2026-03-01T10:15:30.123456Z")));
+        product.setStartingPrice(new BigDecimal("12.50"));
+
+        ProductCursor byDate = ProductCursor.after(product, ProductSort.CREATED_AT, false);
+        ProductCursor byPrice = ProductCursor.after(product, ProductSort.STARTING_PRICE, true);
+
+        assertEquals(byDate, ProductCursor.decode(byDate.encode(), ProductSort.CREATED_AT, false));
+        assertEquals(byPrice, ProductCursor.decode(byPrice.encode(), ProductSort.STARTING_PRICE, true));
+    }
+
+    @Test
+    void roundTrip_idSortHasNoKey() {
+        ProductCursor cursor = ProductCursor.after(product(3L), ProductSort.ID, false);
+
+        ProductCursor decoded = ProductCursor.decode(cursor.encode(), ProductSort.ID, false);
+
+        assertNull(decoded.key());
+        assertEquals(3L, decoded.id());
+    }
+
+    @Test
+    void decode_rejectsMissingSortKey() {
+        String token = new ProductCursor(ProductSort.STARTING_PRICE, false, null, 3L).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(token, ProductSort.STARTING_PRICE, false));
+    }
+
+    @Test
+    void decode_rejectsCursorOfAnotherSortOrDirection() {
+        String token = ProductCursor.after(product(3L), ProductSort.ID, false).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(token, ProductSort.CREATED_AT, false));
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(token, ProductSort.ID, true));
+    }
+
+    @Test
+    void decode_rejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode("not a cursor!", ProductSort.ID, false));
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode("Zm9v", ProductSort.ID, false));
+    }
+}
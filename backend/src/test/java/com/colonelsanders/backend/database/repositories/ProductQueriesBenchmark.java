@@ -0,0 +1,140 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.models.ProductType;
+import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.dto.ProductFilterDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares reading the whole product listing page by page as entities mapped
+ * through ModelMapper, which is what the listing did before, with the
+ * {@link ProductQueries#findPage} constructor projection. Runs against the
+ * embedded database; excluded from the regular test run, use
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+public class ProductQueriesBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+    private static final int BATCH_SIZE = 1000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final String[] TYPES = {"Laptop", "Phone", "Tablet", "Monitor", "Camera", "Printer", "Router", "Watch"};
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void listing_projectionVersusEntityMapping(int products) {
+        insert(products);
+
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
+
+        double entityMillis = measure("entities + ModelMapper", products, () -> readWithEntities(modelMapper));
+        double projectionMillis = measure("constructor projection", products, this::readWithProjection);
+        System.out.printf("ProductQueries listing of %d products: projection is %.1fx faster%n",
+                products, entityMillis / projectionMillis);
+    }
+
+    private int readWithEntities(ModelMapper modelMapper) {
+        int read = 0;
+        long lastId = 0;
+        while (true) {
+            List<Product> page = entityManager
+                    .createQuery("select p from Product p left join fetch p.productType"
+                            + " where p.id > :after order by p.id", Product.class)
+                    .setParameter("after", lastId)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            if (page.isEmpty()) {
+                return read;
+            }
+            for (Product product : page) {
+                modelMapper.map(product, ProductDto.class);
+            }
+            read += page.size();
+            lastId = page.getLast().getId();
+            // a request starts with an empty persistence context
+            entityManager.clear();
+        }
+    }
+
+    private int readWithProjection() {
+        int read = 0;
+        ProductCursor after = null;
+        while (true) {
+            List<ProductDto> page = productRepository.findPage(new ProductFilterDto(), ProductSort.ID, false, after, PAGE_SIZE);
+            if (page.isEmpty()) {
+                return read;
+            }
+            read += page.size();
+            after = ProductCursor.after(page.getLast(), ProductSort.ID, false);
+        }
+    }
+
+    private double measure(String name, int products, IntSupplier listing) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            assertEquals(products, listing.getAsInt());
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            assertEquals(products, listing.getAsInt());
+        }
+        double millis = (System.nanoTime() - start) / (MEASURED_ROUNDS * 1e6);
+        System.out.printf("ProductQueries listing of %d products, %s: %.1f ms%n", products, name, millis);
+        return millis;
+    }
+
+    private void insert(int products) {
+        List<ProductType> types = new ArrayList<>(TYPES.length);
+        for (String name : TYPES) {
+            ProductType type = new ProductType();
+            type.setName(name);
+            entityManager.persist(type);
+            types.add(type);
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setProductType(types.get(i % types.size()));
+            product.setModel("Model " + i);
+            product.setDescription("Refurbished, " + (i % 2000) + " cycles");
+            product.setSerial("SN" + (100_000_000 + i));
+            product.setClosed(i % 3 == 0);
+            product.setStartingPrice(BigDecimal.valueOf(1000 + i % 5000, 2));
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            entityManager.persist(product);
+            if ((i + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                types.replaceAll(type -> entityManager.getReference(ProductType.class, type.getId()));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
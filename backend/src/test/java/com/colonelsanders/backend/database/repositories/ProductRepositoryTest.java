@@ -0,0 +1,113 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.dto.ProductDto;
+import com.colonelsanders.backend.dto.ProductFilterDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class ProductRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long insertProduct() {
+        return insertProduct("SN1", new Timestamp(System.currentTimeMillis()));
+    }
+
+    private Long insertProduct(String serial, Timestamp updatedAt) {
+        return insertProduct(serial, updatedAt, "100.00");
+    }
+
+    private Long insertProduct(String serial, Timestamp updatedAt, String startingPrice) {
+        Product product = new Product();
+        product.setModel("X1");
+        product.setSerial(serial);
+        product.setClosed(false);
+        product.setStartingPrice(new BigDecimal(startingPrice));
+        product.setCreatedAt(updatedAt);
+        product.setUpdatedAt(updatedAt);
+        entityManager.persist(product);
+        entityManager.flush();
+        entityManager.clear();
+        return product.getId();
+    }
+
+    @Test
+    void newProduct_startsWithNoBids() {
+        Long id = insertProduct();
+
+        Product product = productRepository.findById(id).orElseThrow();
+        assertEquals(0, product.getBidCount());
+        assertNull(product.getHighestBidPrice());
+    }
+
+    @Test
+    void savingAProductLoadedBeforeABid_keepsTheBidColumns() {
+        Long id = insertProduct();
+        // loaded by a close or image upload before the bid lands
+        Product stale = productRepository.findById(id).orElseThrow();
+
+        productRepository.raiseHighestBid(id, new BigDecimal("150.00"), 7L);
+        productRepository.incrementBidCount(id, 1);
+
+        stale.setClosed(true);
+        productRepository.save(stale);
+        entityManager.flush();
+        entityManager.clear();
+
+        Product product = productRepository.findById(id).orElseThrow();
+        assertTrue(product.getClosed());
+        assertEquals(0, new BigDecimal("150.00").compareTo(product.getHighestBidPrice()));
+        assertEquals(7L, product.getHighestBidderId());
+        assertEquals(1, product.getBidCount());
+    }
+
+    @Test
+    void findChanges_seeksPastTheWatermarkInUpdatedAtThenIdOrder() {
+        Timestamp earlier = Timestamp.from(Instant.parse("2026-03-01T12:00:00Z"));
+        Timestamp later = Timestamp.from(Instant.parse("2026-03-01T12:00:05Z"));
+        Long first = insertProduct("SN1", earlier);
+        Long second = insertProduct("SN2", earlier);
+        Long third = insertProduct("SN3", later);
+        Timestamp until = Timestamp.from(Instant.parse("2026-03-02T00:00:00Z"));
+
+        List<ProductDto> all = productRepository.findChanges(null, until, 10);
+        assertEquals(List.of(first, second, third), all.stream().map(ProductDto::getId).toList());
+
+        List<ProductDto> rest = productRepository.findChanges(new ProductWatermark(earlier, first), until, 10);
+        assertEquals(List.of(second, third), rest.stream().map(ProductDto::getId).toList());
+
+        assertEquals(List.of(first, second),
+                productRepository.findChanges(null, later, 10).stream().map(ProductDto::getId).toList());
+    }
+
+    @Test
+    void findPage_seeksPastTheCursorAcrossEqualKeys() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Long cheap = insertProduct("SN1", now, "10.00");
+        Long first = insertProduct("SN2", now, "20.00");
+        Long second = insertProduct("SN3", now, "20.00");
+        ProductFilterDto filter = new ProductFilterDto();
+
+        List<ProductDto> page = productRepository.findPage(filter, ProductSort.STARTING_PRICE, true, null, 2);
+        assertEquals(List.of(second, first), page.stream().map(ProductDto::getId).toList());
+
+        ProductCursor after = ProductCursor.after(page.getLast(), ProductSort.STARTING_PRICE, true);
+        List<ProductDto> next = productRepository.findPage(filter, ProductSort.STARTING_PRICE, true, after, 2);
+        assertEquals(List.of(cheap), next.stream().map(ProductDto::getId).toList());
+    }
+}
@@ -0,0 +1,38 @@
+package com.colonelsanders.backend.database.repositories;
+
+import com.colonelsanders.backend.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductWatermarkTest {
+
+    @Test
+    void roundTrip_keepsUpdatedAtAndId() {
+        ProductDto product = ProductDto.builder().id(7L)
+                .updatedAt(Timestamp.from(Instant.parse("2026-03-01T10:15:30.123456Z"))).build();
+
+        ProductWatermark watermark = ProductWatermark.after(product);
+
+        assertEquals(watermark, ProductWatermark.decode(watermark.encode()));
+    }
+
+    @Test
+    void decode_rejectsMissingTimestamp() {
+        String token = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("\n3".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> ProductWatermark.decode(token));
+    }
+
+    @Test
+    void decode_rejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> ProductWatermark.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> ProductWatermark.decode("Zm9v"));
+    }
+}
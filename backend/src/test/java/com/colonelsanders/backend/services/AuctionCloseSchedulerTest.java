@@ -0,0 +1,121 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AuctionCloseSchedulerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AuctionCloseScheduler scheduler;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private AuctionCloseScheduler start(boolean enabled, ProductRepository.EndDate... endDates) {
+        when(productRepository.findOpenEndDates()).thenReturn(List.of(endDates));
+        when(productRepository.closeAll(anyCollection(), any(Timestamp.class)))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        when(productRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                products.add(product((Long) id, true, null));
+            }
+            return products;
+        });
+
+        scheduler = new AuctionCloseScheduler(productRepository, eventPublisher, enabled, 1, 8);
+        scheduler.start();
+        return scheduler;
+    }
+
+    private static ProductRepository.EndDate endDate(long id, long endsAt) {
+        return new ProductRepository.EndDate() {
+            public Long getId() { return id; }
+            public Timestamp getActionEndDate() { return new Timestamp(endsAt); }
+        };
+    }
+
+    private static Product product(Long id, boolean closed, Long endsAt) {
+        Product product = new Product();
+        product.setId(id);
+        product.setClosed(closed);
+        product.setActionEndDate(endsAt == null ? null : new Timestamp(endsAt));
+        return product;
+    }
+
+    @Test
+    void start_closesOverdueAndExpiringAuctions() {
+        long now = System.currentTimeMillis();
+        start(true, endDate(1L, now - 1000), endDate(2L, now + 50), endDate(3L, now + 60_000));
+
+        ArgumentCaptor<ProductChangedEvent> events = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher, timeout(2000).times(2)).publishEvent(events.capture());
+
+        List<Long> closed = events.getAllValues().stream().map(e -> e.product().getId()).toList();
+        assertEquals(List.of(1L, 2L), closed);
+        assertTrue(scheduler.isScheduled(3L));
+    }
+
+    @Test
+    void onProductChanged_reschedulesEarlierEndDate() {
+        long now = System.currentTimeMillis();
+        start(true, endDate(1L, now + 60_000));
+
+        scheduler.onProductChanged(new ProductChangedEvent(product(1L, false, now + 20)));
+
+        verify(productRepository, timeout(2000)).closeAll(eq(List.of(1L)), any(Timestamp.class));
+        assertFalse(scheduler.isScheduled(1L));
+    }
+
+    @Test
+    void onProductChanged_dropsManuallyClosedAuction() {
+        long now = System.currentTimeMillis();
+        start(true, endDate(1L, now + 60_000));
+
+        scheduler.onProductChanged(new ProductChangedEvent(product(1L, true, now + 60_000)));
+
+        assertFalse(scheduler.isScheduled(1L));
+    }
+
+    @Test
+    void start_doesNothingWhenDisabled() {
+        start(false);
+
+        verify(productRepository, never()).findOpenEndDates();
+    }
+}
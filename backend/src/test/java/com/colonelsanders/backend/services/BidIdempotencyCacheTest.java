@@ -0,0 +1,125 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.dto.BidRequestDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BidIdempotencyCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BidIdempotencyCache cache = new BidIdempotencyCache(meterRegistry, 60_000, 100, 2_000);
+
+    private final BidRequestDto request = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+
+    @Test
+    void execute_replaysStoredResponseWithoutRunningAgain() {
+        AtomicInteger calls = new AtomicInteger();
+        ResponseEntity<?> first = cache.execute("u@e.com", "key", request, () -> {
+            calls.incrementAndGet();
+            return new ResponseEntity<>("created", HttpStatus.CREATED);
+        });
+        ResponseEntity<?> replay = cache.execute("u@e.com", "key", request, () -> {
+            calls.incrementAndGet();
+            return new ResponseEntity<>("again", HttpStatus.CREATED);
+        });
+
+        assertEquals(1, calls.get());
+        assertSame(first, replay);
+        assertEquals(1, count("bids.idempotency.replays"));
+    }
+
+    @Test
+    void execute_scopesKeysPerUser() {
+        AtomicInteger calls = new AtomicInteger();
+        cache.execute("a@e.com", "key", request, () -> new ResponseEntity<>(calls.incrementAndGet(), HttpStatus.CREATED));
+        cache.execute("b@e.com", "key", request, () -> new ResponseEntity<>(calls.incrementAndGet(), HttpStatus.CREATED));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_rejectsKeyReusedWithDifferentBody() {
+        cache.execute("u@e.com", "key", request, () -> new ResponseEntity<>(HttpStatus.CREATED));
+        BidRequestDto other = BidRequestDto.builder().productId(1L).price(new BigDecimal("11.00")).build();
+
+        ResponseEntity<?> response = cache.execute("u@e.com", "key", other, () -> new ResponseEntity<>(HttpStatus.CREATED));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_CONTENT, response.getStatusCode());
+        assertEquals(1, count("bids.idempotency.conflicts"));
+        assertEquals(0, count("bids.idempotency.replays"));
+    }
+
+    @Test
+    void execute_treatsPricesOfDifferentScaleAsTheSameRequest() {
+        AtomicInteger calls = new AtomicInteger();
+        cache.execute("u@e.com", "key", request, () -> new ResponseEntity<>(calls.incrementAndGet(), HttpStatus.CREATED));
+        BidRequestDto sameBid = BidRequestDto.builder().productId(1L).price(new BigDecimal("10")).build();
+
+        ResponseEntity<?> replay = cache.execute("u@e.com", "key", sameBid,
+                () -> new ResponseEntity<>(calls.incrementAndGet(), HttpStatus.CREATED));
+
+        assertEquals(HttpStatus.CREATED, replay.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_doesNotKeepRetryableResponses() {
+        AtomicInteger calls = new AtomicInteger();
+        cache.execute("u@e.com", "key", request, () -> {
+            calls.incrementAndGet();
+            return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+        });
+        ResponseEntity<?> retry = cache.execute("u@e.com", "key", request, () -> {
+            calls.incrementAndGet();
+            return new ResponseEntity<>(HttpStatus.CREATED);
+        });
+
+        assertEquals(2, calls.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+    }
+
+    @Test
+    void execute_concurrentDuplicateWaitsForFirstResponse() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                cache.execute("u@e.com", "key", request, () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await(2, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new ResponseEntity<>("created", HttpStatus.CREATED);
+                }));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() ->
+                cache.execute("u@e.com", "key", request, () -> {
+                    calls.incrementAndGet();
+                    return new ResponseEntity<>("duplicate", HttpStatus.CREATED);
+                }));
+        release.countDown();
+
+        assertEquals("created", first.get(2, TimeUnit.SECONDS).getBody());
+        assertEquals("created", duplicate.get(2, TimeUnit.SECONDS).getBody());
+        assertEquals(1, calls.get());
+    }
+
+    private double count(String meter) {
+        return meterRegistry.get(meter).functionCounter().count();
+    }
+}
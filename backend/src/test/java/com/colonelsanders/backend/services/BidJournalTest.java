@@ -0,0 +1,298 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.AppUser;
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.repositories.BidRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BidJournalTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BidRepository bidRepository;
+
+    @Mock
+    private BidStore bidStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private final List<BidJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (BidJournal journal : opened) {
+            journal.shutdown();
+        }
+    }
+
+    private BidJournal open() throws Exception {
+        return open(false);
+    }
+
+    private BidJournal open(boolean force) throws Exception {
+        BidJournal journal = new BidJournal(entityManager, bidRepository, bidStore, transactionManager,
+                true, directory.toString(), 1, force, 16);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private Bid bid(long productId, long userId, String price) {
+        Product product = new Product();
+        product.setId(productId);
+        AppUser user = new AppUser();
+        user.setId(userId);
+
+        Bid bid = new Bid();
+        bid.setProduct(product);
+        bid.setAppUser(user);
+        bid.setPrice(new BigDecimal(price));
+        bid.setCreatedAt(new Timestamp(1_700_000_000_000L));
+        return bid;
+    }
+
+    private void stubReferences() {
+        when(entityManager.getReference(eq(Product.class), any())).thenAnswer(invocation -> {
+            Product product = new Product();
+            product.setId(invocation.getArgument(1));
+            return product;
+        });
+        when(entityManager.getReference(eq(AppUser.class), any())).thenAnswer(invocation -> {
+            AppUser user = new AppUser();
+            user.setId(invocation.getArgument(1));
+            return user;
+        });
+    }
+
+    @Test
+    void append_completesImmediatelyWithoutId() throws Exception {
+        when(bidStore.saveAll(anyList())).thenThrow(new IllegalStateException("db down"));
+        BidJournal journal = open();
+
+        Bid accepted = journal.append(bid(1L, 2L, "10.50")).getNow(null);
+
+        assertNotNull(accepted);
+        assertNull(accepted.getId());
+    }
+
+    @Test
+    void append_withForce_completesOnceTheRecordIsFlushed() throws Exception {
+        when(bidStore.saveAll(anyList())).thenThrow(new IllegalStateException("db down"));
+        BidJournal journal = open(true);
+
+        List<CompletableFuture<Bid>> appended = new ArrayList<>();
+        for (long user = 1; user <= 20; user++) {
+            appended.add(journal.append(bid(1L, user, "10.00")));
+        }
+
+        for (CompletableFuture<Bid> future : appended) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void open_rejectsAMalformedCheckpoint() throws Exception {
+        Files.writeString(directory.resolve("checkpoint"), "0 0");
+
+        assertThrows(IllegalStateException.class, this::open);
+    }
+
+    @Test
+    void drainer_retryAfterAFailedCommitSkipsBidsThatWereStored() throws Exception {
+        stubReferences();
+        List<Bid> stored = java.util.Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger attempts = new AtomicInteger();
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Bid> bids = invocation.getArgument(0);
+            stored.addAll(bids);
+            if (attempts.getAndIncrement() == 0) {
+                // the rows were committed, but the connection dropped before the commit was acknowledged
+                throw new IllegalStateException("connection lost");
+            }
+            return bids;
+        });
+        when(bidRepository.findByProductIdAndAppUserId(4L, 5L))
+                .thenAnswer(invocation -> stored.isEmpty() ? java.util.Optional.empty() : java.util.Optional.of(new Bid()));
+        Path checkpoint = directory.resolve("checkpoint");
+        BidJournal journal = open();
+
+        journal.append(bid(4L, 5L, "99.99"));
+
+        awaitTrue(() -> readCheckpoint(checkpoint).endsWith(" 1"));
+        assertEquals(1, stored.size());
+    }
+
+    @Test
+    void open_replaysRecordsThatWereNotDrained() throws Exception {
+        when(bidStore.saveAll(anyList())).thenThrow(new IllegalStateException("db down"));
+        BidJournal crashed = open();
+        crashed.append(bid(1L, 2L, "10.50"));
+        crashed.append(bid(1L, 3L, "12.00"));
+        crashed.shutdown();
+        opened.clear();
+
+        List<Bid> stored = new ArrayList<>();
+        org.mockito.Mockito.reset(bidStore);
+        stubReferences();
+        when(bidRepository.findByProductIdAndAppUserId(anyLong(), anyLong())).thenReturn(java.util.Optional.empty());
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> {
+            stored.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        open();
+
+        assertEquals(2, stored.size());
+        assertEquals(new BigDecimal("10.50"), stored.get(0).getPrice());
+        assertEquals(3L, stored.get(1).getAppUser().getId());
+        assertEquals(1_700_000_000_000L, stored.get(1).getCreatedAt().getTime());
+    }
+
+    @Test
+    void open_skipsRecordsAlreadyInDatabase() throws Exception {
+        when(bidStore.saveAll(anyList())).thenThrow(new IllegalStateException("db down"));
+        BidJournal crashed = open();
+        crashed.append(bid(1L, 2L, "10.50"));
+        crashed.shutdown();
+        opened.clear();
+
+        org.mockito.Mockito.reset(bidStore);
+        stubReferences();
+        when(bidRepository.findByProductIdAndAppUserId(1L, 2L)).thenReturn(java.util.Optional.of(new Bid()));
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        open();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Bid>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bidStore, atLeastOnce()).saveAll(captor.capture());
+        assertTrue(captor.getAllValues().get(0).isEmpty());
+    }
+
+    @Test
+    void drainer_writesAppendedBidsInBackground() throws Exception {
+        stubReferences();
+        List<Bid> stored = java.util.Collections.synchronizedList(new ArrayList<>());
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> {
+            stored.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        BidJournal journal = open();
+
+        journal.append(bid(4L, 5L, "99.99"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (stored.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, stored.size());
+        assertEquals(4L, stored.get(0).getProduct().getId());
+    }
+
+    private static void awaitTrue(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void drainer_movesARecordThatCanNeverBeStoredToTheDeadLetterFile() throws Exception {
+        stubReferences();
+        List<Bid> stored = java.util.Collections.synchronizedList(new ArrayList<>());
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Bid> bids = invocation.getArgument(0);
+            if (bids.stream().anyMatch(bid -> bid.getProduct().getId() == 9L)) {
+                throw new DataIntegrityViolationException("product 9 no longer exists");
+            }
+            stored.addAll(bids);
+            return bids;
+        });
+        BidJournal journal = open();
+
+        journal.append(bid(9L, 2L, "10.00"));
+        journal.append(bid(4L, 5L, "99.99"));
+
+        awaitTrue(() -> stored.size() == 1);
+        assertEquals(4L, stored.get(0).getProduct().getId());
+        String deadLetters = Files.readString(directory.resolve("dead-letter"));
+        assertTrue(deadLetters.startsWith("1 9 2 1000 "), deadLetters);
+    }
+
+    @Test
+    void drainer_keepsRecordsWhileTheDatabaseIsDown() throws Exception {
+        when(bidStore.saveAll(anyList())).thenThrow(new IllegalStateException("db down"));
+        BidJournal journal = open();
+
+        journal.append(bid(1L, 2L, "10.50"));
+        Thread.sleep(200);
+
+        assertFalse(Files.exists(directory.resolve("dead-letter")));
+    }
+
+    @Test
+    void open_continuesTheSequenceFromTheCheckpoint() throws Exception {
+        stubReferences();
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Path checkpoint = directory.resolve("checkpoint");
+        BidJournal first = open();
+        first.append(bid(1L, 2L, "10.00"));
+        first.append(bid(1L, 3L, "11.00"));
+        awaitTrue(() -> readCheckpoint(checkpoint).endsWith(" 2"));
+        first.shutdown();
+        opened.clear();
+
+        BidJournal second = open();
+        second.append(bid(1L, 4L, "12.00"));
+
+        awaitTrue(() -> readCheckpoint(checkpoint).endsWith(" 3"));
+    }
+
+    private static String readCheckpoint(Path checkpoint) {
+        try {
+            return Files.exists(checkpoint) ? Files.readString(checkpoint).trim() : "";
+        } catch (java.io.IOException ex) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.colonelsanders.backend.services;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the accept path of {@link BidRateLimiter}. Excluded from the
+ * regular test run; use {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+public class BidRateLimiterBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    @Test
+    void acceptPath_staysWellUnderOneMicrosecond() {
+        // a rate no user can hit, so every call takes the accept path
+        BidRateLimiter limiter = new BidRateLimiter(true, 1e9, 1_000_000, USERS);
+        String[] users = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = "user" + i + "@example.com";
+        }
+
+        long rejected = run(limiter, users, WARMUP_ROUNDS);
+
+        long start = System.nanoTime();
+        rejected += run(limiter, users, MEASURED_ROUNDS);
+        long elapsed = System.nanoTime() - start;
+
+        double nanosPerCall = (double) elapsed / ((long) MEASURED_ROUNDS * USERS);
+        System.out.printf("BidRateLimiter.tryAcquire: %.1f ns/op over %d calls%n",
+                nanosPerCall, (long) MEASURED_ROUNDS * USERS);
+
+        assertEquals(0, rejected);
+        assertTrue(nanosPerCall < 500, "accept path took " + nanosPerCall + " ns/op");
+    }
+
+    private static long run(BidRateLimiter limiter, String[] users, int rounds) {
+        long rejected = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String user : users) {
+                if (limiter.tryAcquire(user) != 0) {
+                    rejected++;
+                }
+            }
+        }
+        return rejected;
+    }
+}
@@ -0,0 +1,94 @@
+package com.colonelsanders.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BidRateLimiterTest {
+
+    @Test
+    void tryAcquire_allowsBurstThenRejectsWithRetryAfter() {
+        BidRateLimiter limiter = new BidRateLimiter(true, 1, 3, 100);
+
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+
+        long wait = limiter.tryAcquire("a@example.com");
+        assertTrue(wait > 0 && wait <= 1_000_000_000L, "wait was " + wait);
+    }
+
+    @Test
+    void tryAcquire_keepsUsersIndependent() {
+        BidRateLimiter limiter = new BidRateLimiter(true, 1, 1, 100);
+
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+        assertTrue(limiter.tryAcquire("a@example.com") > 0);
+        assertEquals(0, limiter.tryAcquire("b@example.com"));
+    }
+
+    @Test
+    void tryAcquire_refillsOverTime() throws InterruptedException {
+        BidRateLimiter limiter = new BidRateLimiter(true, 100, 1, 100);
+
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+        Thread.sleep(20);
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+    }
+
+    @Test
+    void evictIdle_dropsRefilledUsers() throws InterruptedException {
+        BidRateLimiter limiter = new BidRateLimiter(true, 1000, 1, 100);
+        limiter.tryAcquire("a@example.com");
+        limiter.tryAcquire("b@example.com");
+
+        Thread.sleep(5);
+        limiter.evictIdle();
+
+        assertEquals(0, limiter.trackedUsers());
+    }
+
+    @Test
+    void tryAcquire_rejectsNewUsersWhenFullOfActiveOnes() {
+        BidRateLimiter limiter = new BidRateLimiter(true, 1, 5, 2);
+        limiter.tryAcquire("a@example.com");
+        limiter.tryAcquire("b@example.com");
+
+        assertTrue(limiter.tryAcquire("c@example.com") > 0);
+        assertEquals(2, limiter.trackedUsers());
+    }
+
+    @Test
+    void tryAcquire_whenFull_admitsNewUsersOnlyAfterTheSweep() throws InterruptedException {
+        BidRateLimiter limiter = new BidRateLimiter(true, 1000, 1, 1);
+        limiter.tryAcquire("a@example.com");
+        Thread.sleep(5);
+
+        assertTrue(limiter.tryAcquire("b@example.com") > 0);
+        assertEquals(1, limiter.trackedUsers());
+
+        limiter.evictIdle();
+
+        assertEquals(0, limiter.tryAcquire("b@example.com"));
+    }
+
+    @Test
+    void tryAcquire_permits_takesThatManyTokensOrNone() {
+        BidRateLimiter limiter = new BidRateLimiter(true, 1, 5, 100);
+
+        assertEquals(5, limiter.maxPermits());
+        assertEquals(0, limiter.tryAcquire("a@example.com", 3));
+        assertTrue(limiter.tryAcquire("a@example.com", 3) > 0);
+        assertEquals(0, limiter.tryAcquire("a@example.com", 2));
+        assertTrue(limiter.tryAcquire("a@example.com") > 0);
+    }
+
+    @Test
+    void tryAcquire_alwaysAllowsWhenDisabled() {
+        BidRateLimiter limiter = new BidRateLimiter(false, 1, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tryAcquire("a@example.com"));
+        }
+    }
+}
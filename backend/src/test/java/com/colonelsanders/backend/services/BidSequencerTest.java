@@ -0,0 +1,180 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.dto.BidRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BidSequencerTest {
+
+    @Mock
+    private BidService bidService;
+
+    private BidSequencer sequencer;
+
+    @AfterEach
+    void tearDown() {
+        if (sequencer != null) {
+            sequencer.shutdown();
+        }
+    }
+
+    private BidSequencer enabled(int partitions, long timeoutMillis) {
+        when(bidService.persistsAsynchronously()).thenReturn(true);
+        return new BidSequencer(bidService, true, partitions, 16, timeoutMillis, 30_000);
+    }
+
+    @Test
+    void enabled_withoutAsynchronousPersistence_refusesToStart() {
+        when(bidService.persistsAsynchronously()).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> new BidSequencer(bidService, true, 2, 16, 5000, 30_000));
+    }
+
+    @Test
+    void submit_enabled_returnsBidFromWriterThread() {
+        sequencer = enabled(2, 5000);
+        BidRequestDto req = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        Bid bid = new Bid();
+        bid.setId(5L);
+        when(bidService.placeBid(req, "u@e.com")).thenReturn(CompletableFuture.completedFuture(bid));
+
+        Bid out = sequencer.submit(req, "u@e.com");
+
+        assertEquals(5L, out.getId());
+    }
+
+    @Test
+    void submit_enabled_rethrowsValidationErrors() {
+        sequencer = enabled(2, 5000);
+        BidRequestDto req = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        when(bidService.placeBid(req, "u@e.com"))
+                .thenThrow(new IllegalArgumentException("Cannot bid on a closed product"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> sequencer.submit(req, "u@e.com"));
+        assertEquals("Cannot bid on a closed product", ex.getMessage());
+    }
+
+    @Test
+    void submit_sameProduct_processedInArrivalOrderOnOneThread() {
+        sequencer = enabled(4, 5000);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        List<String> users = new CopyOnWriteArrayList<>();
+        when(bidService.placeBid(any(BidRequestDto.class), any())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            users.add(invocation.getArgument(1));
+            return CompletableFuture.completedFuture(new Bid());
+        });
+
+        for (int i = 0; i < 5; i++) {
+            BidRequestDto req = BidRequestDto.builder().productId(7L).price(new BigDecimal("10.00")).build();
+            sequencer.submit(req, "user" + i + "@e.com");
+        }
+
+        assertEquals(List.of("user0@e.com", "user1@e.com", "user2@e.com", "user3@e.com", "user4@e.com"), users);
+        assertEquals(1, threads.stream().distinct().count());
+        assertTrue(threads.get(0).startsWith("bid-sequencer-"));
+    }
+
+    @Test
+    void submit_enabled_failedWrite_unwrapsCause() {
+        sequencer = enabled(2, 5000);
+        BidRequestDto req = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        when(bidService.placeBid(req, "u@e.com"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("db down")));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> sequencer.submit(req, "u@e.com"));
+        assertEquals("db down", ex.getMessage());
+    }
+
+    @Test
+    void submit_timedOutWhileQueued_isNeverPlaced() throws Exception {
+        sequencer = enabled(1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        BidRequestDto first = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        BidRequestDto queued = BidRequestDto.builder().productId(1L).price(new BigDecimal("11.00")).build();
+        BidRequestDto after = BidRequestDto.builder().productId(1L).price(new BigDecimal("12.00")).build();
+        when(bidService.placeBid(first, "first@e.com")).thenAnswer(invocation -> {
+            release.await(2, TimeUnit.SECONDS);
+            return CompletableFuture.completedFuture(new Bid());
+        });
+        when(bidService.placeBid(after, "after@e.com")).thenReturn(CompletableFuture.completedFuture(new Bid()));
+
+        // the first bid holds the only writer, and is answered once it finishes even though it takes longer
+        CompletableFuture<Bid> firstResult = CompletableFuture.supplyAsync(() -> sequencer.submit(first, "first@e.com"));
+        Thread.sleep(20);
+        assertThrows(RejectedExecutionException.class, () -> sequencer.submit(queued, "queued@e.com"));
+
+        release.countDown();
+        assertNotNull(firstResult.get(2, TimeUnit.SECONDS));
+        assertNotNull(sequencer.submit(after, "after@e.com"));
+        verify(bidService, never()).placeBid(queued, "queued@e.com");
+    }
+
+    @Test
+    void submit_outcomeNeverArrives_failsAfterTheOutcomeTimeout() {
+        when(bidService.persistsAsynchronously()).thenReturn(true);
+        sequencer = new BidSequencer(bidService, true, 1, 16, 20, 50);
+        BidRequestDto req = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        // taken by the writer, but the write it waits for never finishes
+        when(bidService.placeBid(req, "u@e.com")).thenReturn(new CompletableFuture<>());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () ->
+                assertThrows(IllegalStateException.class, () -> sequencer.submit(req, "u@e.com")));
+    }
+
+    @Test
+    void submitAll_placesEachItemThroughThePartitions() {
+        sequencer = enabled(2, 5000);
+        BidRequestDto ok = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        BidRequestDto closed = BidRequestDto.builder().productId(2L).price(new BigDecimal("10.00")).build();
+        Product product = new Product();
+        product.setId(1L);
+        Bid bid = new Bid();
+        bid.setId(5L);
+        bid.setProduct(product);
+        when(bidService.placeBid(ok, "u@e.com")).thenReturn(CompletableFuture.completedFuture(bid));
+        when(bidService.placeBid(closed, "u@e.com"))
+                .thenThrow(new IllegalArgumentException("Cannot bid on a closed product"));
+
+        List<BidService.BatchItem> items = sequencer.submitAll(List.of(ok, closed), "u@e.com");
+
+        assertEquals(BidService.BatchItem.Status.ACCEPTED, items.get(0).status());
+        assertSame(bid, items.get(0).bid());
+        assertEquals(BidService.BatchItem.Status.REJECTED, items.get(1).status());
+        assertEquals("Cannot bid on a closed product", items.get(1).error());
+        verify(bidService, never()).placeBids(any(), any());
+    }
+
+    @Test
+    void submit_disabled_callsServiceDirectly() {
+        sequencer = new BidSequencer(bidService, false, 4, 16, 5000, 30_000);
+        BidRequestDto req = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
+        when(bidService.createBid(eq(req), eq("u@e.com"))).thenReturn(new Bid());
+
+        assertNotNull(sequencer.submit(req, "u@e.com"));
+    }
+}
@@ -7,17 +7,23 @@ import com.colonelsanders.backend.database.repositories.AppUserRepository;
 import com.colonelsanders.backend.database.repositories.BidRepository;
 import com.colonelsanders.backend.database.repositories.ProductRepository;
 import com.colonelsanders.backend.dto.BidRequestDto;
+import com.colonelsanders.backend.events.BidAcceptedEvent;
+import com.colonelsanders.backend.events.ProductChangedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,16 +38,54 @@ public class BidServiceTest {
     @Mock
     private AppUserRepository appUserRepository;
 
-    @InjectMocks
+    @Mock
+    private BidStore bidStore;
+
+    @Mock
+    private BidWriteBehind bidWriteBehind;
+
+    @Mock
+    private BidJournal bidJournal;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AuctionBook auctionBook;
+
     private BidService bidService;
 
     private BidRequestDto req;
 
     @BeforeEach
     void setUp() {
+        auctionBook = new AuctionBook(productRepository, bidRepository, appUserRepository, 60_000, 100);
+        bidService = new BidService(bidRepository, bidStore, auctionBook, bidWriteBehind, bidJournal, eventPublisher);
         req = BidRequestDto.builder().productId(1L).price(new BigDecimal("10.00")).build();
     }
 
+    private Product openProduct() {
+        Product p = new Product();
+        p.setId(1L);
+        p.setClosed(false);
+        p.setStartingPrice(new BigDecimal("5.00"));
+        return p;
+    }
+
+    private AppUser user() {
+        AppUser u = new AppUser();
+        u.setId(2L);
+        u.setEmail("u@e.com");
+        return u;
+    }
+
+    private BidRepository.BidderPrice bidderPrice(Long appUserId, String price) {
+        return new BidRepository.BidderPrice() {
+            public Long getProductId() { return 1L; }
+            public Long getAppUserId() { return appUserId; }
+            public BigDecimal getPrice() { return new BigDecimal(price); }
+        };
+    }
+
     @Test
     void createBid_productNotFound_throws() {
         when(productRepository.findById(1L)).thenReturn(Optional.empty());
@@ -53,11 +97,7 @@ public class BidServiceTest {
 
     @Test
     void createBid_userNotFound_throws() {
-        Product p = new Product();
-        p.setId(1L);
-        p.setClosed(false);
-        p.setStartingPrice(new BigDecimal("5.00"));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(p));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(openProduct()));
         when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.empty());
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
@@ -67,18 +107,9 @@ public class BidServiceTest {
 
     @Test
     void createBid_existingBid_throws() {
-        Product p = new Product();
-        p.setId(1L);
-        p.setClosed(false);
-        p.setStartingPrice(new BigDecimal("5.00"));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(p));
-
-        AppUser u = new AppUser();
-        u.setId(2L);
-        u.setEmail("u@e.com");
-        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(u));
-
-        when(bidRepository.findByProductIdAndAppUserId(1L, 2L)).thenReturn(Optional.of(new Bid()));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(openProduct()));
+        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(user()));
+        when(bidRepository.findBidderPricesByProductId(1L)).thenReturn(List.of(bidderPrice(2L, "7.00")));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> bidService.createBid(req, "u@e.com"));
@@ -87,26 +118,154 @@ public class BidServiceTest {
 
     @Test
     void createBid_success_savesAndReturns() {
-        Product p = new Product();
-        p.setId(1L);
-        p.setClosed(false);
-        p.setStartingPrice(new BigDecimal("5.00"));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(p));
-
-        AppUser u = new AppUser();
-        u.setId(2L);
-        u.setEmail("u@e.com");
-        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(u));
-
-        when(bidRepository.findByProductIdAndAppUserId(1L, 2L)).thenReturn(Optional.empty());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(openProduct()));
+        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(user()));
 
         Bid saved = new Bid();
         saved.setId(99L);
         saved.setPrice(req.getPrice());
-        when(bidRepository.save(org.mockito.ArgumentMatchers.any(Bid.class))).thenReturn(saved);
+        when(bidStore.save(any(Bid.class))).thenReturn(saved);
 
         Bid out = bidService.createBid(req, "u@e.com");
         assertNotNull(out);
         assertEquals(99L, out.getId());
+        verify(eventPublisher).publishEvent(new BidAcceptedEvent(saved));
+    }
+
+    @Test
+    void createBid_secondBidFromSameUser_answeredFromMemory() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(openProduct()));
+        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(user()));
+        when(bidStore.save(any(Bid.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bidService.createBid(req, "u@e.com");
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> bidService.createBid(req, "u@e.com"));
+
+        assertTrue(ex.getMessage().contains("already placed a bid"));
+        verify(productRepository, times(1)).findById(1L);
+        verify(appUserRepository, times(1)).findByEmail("u@e.com");
+        verify(bidRepository, times(1)).save(any(Bid.class));
+    }
+
+    @Test
+    void createBid_afterCloseEvent_throws() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(openProduct()));
+        assertTrue(auctionBook.find(1L).isPresent());
+
+        Product closed = openProduct();
+        closed.setClosed(true);
+        auctionBook.onProductChanged(new ProductChangedEvent(closed));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> bidService.createBid(req, "u@e.com"));
+        assertTrue(ex.getMessage().contains("closed"));
+    }
+
+    @Test
+    void evictClosed_dropsClosedAuctionsAndKeepsOpenOnes() {
+        Product other = openProduct();
+        other.setId(3L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(openProduct()));
+        when(productRepository.findById(3L)).thenReturn(Optional.of(other));
+        AuctionBook.Auction open = auctionBook.find(3L).orElseThrow();
+        auctionBook.find(1L);
+
+        Product closed = openProduct();
+        closed.setClosed(true);
+        auctionBook.onProductChanged(new ProductChangedEvent(closed));
+        auctionBook.evictClosed();
+
+        assertSame(open, auctionBook.find(3L).orElseThrow());
+        auctionBook.find(1L);
+        verify(productRepository, times(2)).findById(1L);
+        verify(productRepository, times(1)).findById(3L);
+    }
+
+    @Test
+    void findUser_reloadsOnceTheCachedUserExpires() {
+        AuctionBook book = new AuctionBook(productRepository, bidRepository, appUserRepository, 0, 100);
+        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(user()));
+
+        assertTrue(book.findUser("u@e.com").isPresent());
+        assertTrue(book.findUser("u@e.com").isPresent());
+
+        verify(appUserRepository, times(2)).findByEmail("u@e.com");
+    }
+
+    @Test
+    void findUser_unknownEmailIsNotCached() {
+        when(appUserRepository.findByEmail("nobody@e.com")).thenReturn(Optional.empty());
+
+        assertTrue(auctionBook.findUser("nobody@e.com").isEmpty());
+        assertTrue(auctionBook.findUser("nobody@e.com").isEmpty());
+
+        verify(appUserRepository, times(2)).findByEmail("nobody@e.com");
+    }
+
+    @Test
+    void createBid_saveFails_releasesTheReservationSoUserCanRetry() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(openProduct()));
+        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(user()));
+        when(bidStore.save(any(Bid.class)))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(IllegalStateException.class, () -> bidService.createBid(req, "u@e.com"));
+        Bid retried = bidService.createBid(req, "u@e.com");
+
+        assertEquals(req.getPrice(), retried.getPrice());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void createBid_saveFails_restoresTheEarlierTopBid() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(openProduct()));
+        when(bidRepository.findBidderPricesByProductId(1L)).thenReturn(List.of(bidderPrice(5L, "7.00")));
+        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(user()));
+        when(bidStore.save(any(Bid.class))).thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(IllegalStateException.class, () -> bidService.createBid(req, "u@e.com"));
+
+        AuctionBook.Auction auction = auctionBook.find(1L).orElseThrow();
+        assertEquals(new BigDecimal("7.00"), auction.getTopPrice());
+        assertEquals(5L, auction.getTopBidderId());
+    }
+
+    @Test
+    void placeBids_validatesEachItemAndSavesAcceptedOnesTogether() {
+        Product open = openProduct();
+        Product closed = openProduct();
+        closed.setId(3L);
+        closed.setClosed(true);
+        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(user()));
+        when(productRepository.findAllById(any())).thenReturn(List.of(open, closed));
+        when(bidRepository.findBidderPricesByProductIdIn(any())).thenReturn(List.of());
+        when(bidStore.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BidService.BatchItem> items = bidService.placeBids(List.of(
+                req,
+                BidRequestDto.builder().productId(2L).price(new BigDecimal("10.00")).build(),
+                BidRequestDto.builder().productId(3L).price(new BigDecimal("10.00")).build(),
+                req), "u@e.com");
+
+        assertEquals(BidService.BatchItem.Status.ACCEPTED, items.get(0).status());
+        assertTrue(items.get(1).error().contains("Product not found"));
+        assertTrue(items.get(2).error().contains("closed"));
+        assertEquals(BidService.BatchItem.Status.REJECTED, items.get(3).status());
+        verify(bidStore, times(1)).saveAll(any());
+        verify(eventPublisher).publishEvent(any(BidAcceptedEvent.class));
+    }
+
+    @Test
+    void placeBids_saveFails_marksAcceptedItemsFailed() {
+        when(appUserRepository.findByEmail("u@e.com")).thenReturn(Optional.of(user()));
+        when(productRepository.findAllById(any())).thenReturn(List.of(openProduct()));
+        when(bidRepository.findBidderPricesByProductIdIn(any())).thenReturn(List.of());
+        when(bidStore.saveAll(any())).thenThrow(new IllegalStateException("db down"));
+
+        List<BidService.BatchItem> items = bidService.placeBids(List.of(req), "u@e.com");
+
+        assertEquals(BidService.BatchItem.Status.FAILED, items.get(0).status());
     }
 }
@@ -0,0 +1,178 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.repositories.BidRepository;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.dto.BidStatsDto;
+import com.colonelsanders.backend.events.BidAcceptedEvent;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BidStatisticsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private BidRepository bidRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BidStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new BidStatistics(productRepository, bidRepository, transactionManager);
+    }
+
+    private static ProductRepository.StartingPrice startingPrice(long id, String price) {
+        return new ProductRepository.StartingPrice() {
+            public Long getId() { return id; }
+            public BigDecimal getStartingPrice() { return price == null ? null : new BigDecimal(price); }
+        };
+    }
+
+    private static BidRepository.BidderPrice bidderPrice(long productId, String price) {
+        return new BidRepository.BidderPrice() {
+            public Long getProductId() { return productId; }
+            public Long getAppUserId() { return 1L; }
+            public BigDecimal getPrice() { return new BigDecimal(price); }
+        };
+    }
+
+    private static Product product(long id, String startingPrice) {
+        Product product = new Product();
+        product.setId(id);
+        product.setStartingPrice(startingPrice == null ? null : new BigDecimal(startingPrice));
+        return product;
+    }
+
+    private static Bid bid(Product product, String price) {
+        Bid bid = new Bid();
+        bid.setProduct(product);
+        bid.setPrice(new BigDecimal(price));
+        return bid;
+    }
+
+    private void rebuild(List<ProductRepository.StartingPrice> products, List<BidRepository.BidderPrice> bids) {
+        when(productRepository.findStartingPrices()).thenReturn(products);
+        when(bidRepository.streamAllBidderPrices()).thenReturn(bids.stream());
+        statistics.rebuild();
+    }
+
+    @Test
+    void rebuild_aggregatesExistingBids() {
+        rebuild(List.of(startingPrice(1L, "100"), startingPrice(2L, "50")),
+                List.of(bidderPrice(1L, "100"), bidderPrice(1L, "150"), bidderPrice(1L, "1200"), bidderPrice(2L, "60")));
+
+        BidStatsDto stats = statistics.get(1L).orElseThrow();
+        assertEquals(3, stats.getCount());
+        assertEquals(0, new BigDecimal("100").compareTo(stats.getMin()));
+        assertEquals(0, new BigDecimal("1200").compareTo(stats.getMax()));
+        assertEquals(new BigDecimal("483.33"), stats.getMean());
+        assertEquals(1, statistics.get(2L).orElseThrow().getCount());
+    }
+
+    @Test
+    void histogram_bucketsAreMultiplesOfStartingPrice() {
+        rebuild(List.of(startingPrice(1L, "100")),
+                List.of(bidderPrice(1L, "100"), bidderPrice(1L, "109.99"), bidderPrice(1L, "150"), bidderPrice(1L, "1200")));
+
+        BidStatsDto stats = statistics.get(1L).orElseThrow();
+        assertEquals(9, stats.getHistogram().size());
+        assertEquals(0, stats.getHistogram().get(0).getCount());
+        // [100, 110)
+        assertEquals(0, new BigDecimal("100").compareTo(stats.getHistogram().get(1).getFrom()));
+        assertEquals(0, new BigDecimal("110").compareTo(stats.getHistogram().get(1).getTo()));
+        assertEquals(2, stats.getHistogram().get(1).getCount());
+        // [150, 200)
+        assertEquals(1, stats.getHistogram().get(4).getCount());
+        // [1000, ...)
+        assertNull(stats.getHistogram().get(8).getTo());
+        assertEquals(1, stats.getHistogram().get(8).getCount());
+    }
+
+    @Test
+    void histogram_withoutStartingPrice_usesDecades() {
+        rebuild(List.of(startingPrice(1L, null)), List.of(bidderPrice(1L, "0.5"), bidderPrice(1L, "42")));
+
+        BidStatsDto stats = statistics.get(1L).orElseThrow();
+        assertEquals(7, stats.getHistogram().size());
+        assertEquals(1, stats.getHistogram().get(0).getCount());
+        assertEquals(1, stats.getHistogram().get(2).getCount());
+    }
+
+    @Test
+    void acceptedBid_updatesStatsWithoutQuerying() {
+        rebuild(List.of(startingPrice(1L, "100")), List.of());
+        Product product = product(1L, "100");
+
+        statistics.onBidAccepted(new BidAcceptedEvent(bid(product, "120")));
+        statistics.onBidAccepted(new BidAcceptedEvent(bid(product, "130")));
+
+        BidStatsDto stats = statistics.get(1L).orElseThrow();
+        assertEquals(2, stats.getCount());
+        assertEquals(new BigDecimal("125.00"), stats.getMean());
+        verify(bidRepository, never()).findBidderPricesByProductId(1L);
+    }
+
+    @Test
+    void unknownProduct_isEmpty_untilItIsCreated() {
+        rebuild(List.of(), List.of());
+        assertTrue(statistics.get(5L).isEmpty());
+
+        statistics.onProductChanged(new ProductChangedEvent(product(5L, "10")));
+
+        BidStatsDto stats = statistics.get(5L).orElseThrow();
+        assertEquals(0, stats.getCount());
+        assertNull(stats.getMean());
+    }
+
+    @Test
+    void startingPriceChange_recomputesHistogram() {
+        rebuild(List.of(startingPrice(1L, "100")), List.of(bidderPrice(1L, "150")));
+        when(bidRepository.findBidderPricesByProductId(1L)).thenReturn(List.of(bidderPrice(1L, "150")));
+
+        statistics.onProductChanged(new ProductChangedEvent(product(1L, "100")));
+        verify(bidRepository, never()).findBidderPricesByProductId(1L);
+
+        statistics.onProductChanged(new ProductChangedEvent(product(1L, "50")));
+
+        BidStatsDto stats = statistics.get(1L).orElseThrow();
+        assertEquals(1, stats.getCount());
+        // 150 is three times the new starting price: [150, 250)
+        assertEquals(1, stats.getHistogram().get(6).getCount());
+    }
+
+    @Test
+    void rebuild_closesTheBidStream() {
+        Stream<BidRepository.BidderPrice> bids = Stream.of(bidderPrice(1L, "100"));
+        boolean[] closed = new boolean[1];
+        when(productRepository.findStartingPrices()).thenReturn(List.of(startingPrice(1L, "100")));
+        when(bidRepository.streamAllBidderPrices()).thenReturn(bids.onClose(() -> closed[0] = true));
+
+        statistics.rebuild();
+
+        assertTrue(closed[0]);
+    }
+}
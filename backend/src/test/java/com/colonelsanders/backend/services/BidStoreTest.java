@@ -0,0 +1,75 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.AppUser;
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.repositories.BidRepository;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BidStoreTest {
+
+    @Mock
+    private BidRepository bidRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private BidStore bidStore;
+
+    private Bid bid(long productId, long userId, String price) {
+        Product product = new Product();
+        product.setId(productId);
+        AppUser user = new AppUser();
+        user.setId(userId);
+
+        Bid bid = new Bid();
+        bid.setProduct(product);
+        bid.setAppUser(user);
+        bid.setPrice(new BigDecimal(price));
+        return bid;
+    }
+
+    @Test
+    void saveAll_updatesEachProductOnceInIdOrder() {
+        List<Bid> bids = List.of(
+                bid(9L, 1L, "10.00"),
+                bid(3L, 1L, "5.00"),
+                bid(9L, 2L, "12.00"),
+                bid(9L, 3L, "12.00"));
+        when(bidRepository.saveAll(anyList())).thenReturn(bids);
+
+        List<Bid> saved = bidStore.saveAll(bids);
+
+        assertEquals(4, saved.size());
+        InOrder order = inOrder(productRepository);
+        order.verify(productRepository).incrementBidCount(3L, 1);
+        order.verify(productRepository).raiseHighestBid(3L, new BigDecimal("5.00"), 1L);
+        order.verify(productRepository).incrementBidCount(9L, 3);
+        // equal prices keep the earlier bidder
+        order.verify(productRepository).raiseHighestBid(9L, new BigDecimal("12.00"), 2L);
+    }
+
+    @Test
+    void save_returnsSavedBid() {
+        Bid bid = bid(1L, 2L, "7.50");
+        when(bidRepository.saveAll(anyList())).thenReturn(List.of(bid));
+
+        assertSame(bid, bidStore.save(bid));
+    }
+}
@@ -0,0 +1,148 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.events.BidAcceptedEvent;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BidStreamHubTest {
+
+    private final BidStreamHub hub = new BidStreamHub(4, 60_000, 10_000);
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    private static Product product(long id, boolean closed) {
+        Product product = new Product();
+        product.setId(id);
+        product.setClosed(closed);
+        return product;
+    }
+
+    private static Bid bid(long productId) {
+        Bid bid = new Bid();
+        bid.setProduct(product(productId, false));
+        bid.setPrice(new BigDecimal("12.50"));
+        return bid;
+    }
+
+    private void awaitSubscribers(long productId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (hub.subscriberCount(productId) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, hub.subscriberCount(productId));
+    }
+
+    @Test
+    void subscribe_tracksSubscribersPerProduct() {
+        hub.subscribe(1L);
+        hub.subscribe(1L);
+        hub.subscribe(2L);
+
+        assertEquals(2, hub.subscriberCount(1L));
+        assertEquals(1, hub.subscriberCount(2L));
+    }
+
+    @Test
+    void closeEvent_endsEveryStreamOnTheProduct() throws InterruptedException {
+        hub.subscribe(1L);
+        hub.subscribe(1L);
+        hub.subscribe(2L);
+
+        hub.onProductChanged(new ProductChangedEvent(product(1L, true)));
+
+        awaitSubscribers(1L, 0);
+        assertEquals(1, hub.subscriberCount(2L));
+    }
+
+    @Test
+    void bidEvent_keepsStreamsOpen() throws InterruptedException {
+        hub.subscribe(1L);
+
+        hub.onBidAccepted(new BidAcceptedEvent(bid(1L)));
+        hub.onProductChanged(new ProductChangedEvent(product(1L, false)));
+
+        Thread.sleep(50);
+        assertEquals(1, hub.subscriberCount(1L));
+    }
+
+    @Test
+    void overflowingAStalledSubscriber_doesNotBlockThePublisher() throws InterruptedException {
+        StalledEmitter stalled = new StalledEmitter();
+        BidStreamHub stallingHub = new BidStreamHub(2, 60_000, 10_000) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return stalled;
+            }
+        };
+        try {
+            stallingHub.subscribe(1L);
+            stallingHub.onBidAccepted(new BidAcceptedEvent(bid(1L)));
+            assertTrue(stalled.writing.await(2, TimeUnit.SECONDS));
+
+            // two fill the queue, the third overflows it
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+                for (int i = 0; i < 3; i++) {
+                    stallingHub.onBidAccepted(new BidAcceptedEvent(bid(1L)));
+                }
+            });
+            assertEquals(0, stallingHub.subscriberCount(1L));
+            assertNull(stalled.completedOn);
+
+            stalled.release.countDown();
+            long deadline = System.currentTimeMillis() + 2000;
+            while (stalled.completedOn == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertNotNull(stalled.completedOn);
+            assertTrue(stalled.completedOn.getName().startsWith("bid-stream-"));
+        } finally {
+            stalled.release.countDown();
+            stallingHub.shutdown();
+        }
+    }
+
+    // a client that stopped reading: the write blocks, and so does completing, as both need the emitter's lock
+    private static class StalledEmitter extends SseEmitter {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile Thread completedOn;
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                throw new InterruptedIOException();
+            }
+        }
+
+        @Override
+        public void complete() {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            completedOn = Thread.currentThread();
+            super.complete();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BidWriteBehindTest {
+
+    @Mock
+    private BidStore bidStore;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BidWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.shutdown();
+        }
+    }
+
+    private BidWriteBehind create(boolean enabled, int batchSize, long lingerMillis) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new BidWriteBehind(bidStore, meterRegistry,
+                enabled, batchSize, lingerMillis, 1024);
+    }
+
+    private Bid bid(String price) {
+        Bid bid = new Bid();
+        bid.setPrice(new BigDecimal(price));
+        return bid;
+    }
+
+    @Test
+    void submit_fullBatch_writtenInOneTransaction() throws Exception {
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<Bid>>getArgument(0)));
+        writeBehind = create(true, 3, 10_000);
+
+        List<CompletableFuture<Bid>> futures = List.of(
+                writeBehind.submit(bid("1.00")),
+                writeBehind.submit(bid("2.00")),
+                writeBehind.submit(bid("3.00")));
+
+        for (CompletableFuture<Bid> future : futures) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS));
+        }
+        verify(bidStore, times(1)).saveAll(anyList());
+        assertEquals(3.0, meterRegistry.get("bids.write_behind.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void submit_partialBatch_flushedAfterLinger() throws Exception {
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<Bid>>getArgument(0)));
+        writeBehind = create(true, 100, 5);
+
+        Bid saved = writeBehind.submit(bid("1.00")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(new BigDecimal("1.00"), saved.getPrice());
+    }
+
+    @Test
+    void submit_batchFails_retriesRowsIndividually() throws Exception {
+        Bid good = bid("1.00");
+        Bid bad = bid("2.00");
+        when(bidStore.saveAll(anyList())).thenThrow(new IllegalStateException("constraint violation"));
+        when(bidStore.save(good)).thenReturn(good);
+        when(bidStore.save(bad)).thenThrow(new IllegalStateException("constraint violation"));
+        writeBehind = create(true, 2, 10_000);
+
+        CompletableFuture<Bid> goodFuture = writeBehind.submit(good);
+        CompletableFuture<Bid> badFuture = writeBehind.submit(bad);
+
+        assertSame(good, goodFuture.get(5, TimeUnit.SECONDS));
+        Exception ex = assertThrows(Exception.class, () -> badFuture.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    @Test
+    void shutdown_flushesBidsStillWaitingForTheirBatch() throws Exception {
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<Bid>>getArgument(0)));
+        writeBehind = create(true, 100, 10_000);
+
+        CompletableFuture<Bid> first = writeBehind.submit(bid("1.00"));
+        CompletableFuture<Bid> second = writeBehind.submit(bid("2.00"));
+        writeBehind.shutdown();
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(new BigDecimal("2.00"), second.get().getPrice());
+        assertThrows(RejectedExecutionException.class, () -> writeBehind.submit(bid("3.00")));
+    }
+
+    @Test
+    void shutdown_interruptingAFlush_stillCompletesEveryQueuedBid() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        when(bidStore.saveAll(anyList())).thenAnswer(invocation -> {
+            if (writing.getCount() > 0) {
+                writing.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException("write interrupted", ex);
+                }
+            }
+            return new ArrayList<>(invocation.<List<Bid>>getArgument(0));
+        });
+        when(bidStore.save(any(Bid.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        writeBehind = create(true, 1, 10_000);
+
+        CompletableFuture<Bid> inFlight = writeBehind.submit(bid("1.00"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Bid> queued = writeBehind.submit(bid("2.00"));
+        CompletableFuture<Bid> alsoQueued = writeBehind.submit(bid("3.00"));
+        writeBehind.shutdown();
+
+        for (CompletableFuture<Bid> future : List.of(inFlight, queued, alsoQueued)) {
+            assertTrue(future.isDone());
+            assertNotNull(future.get());
+        }
+    }
+
+    @Test
+    void submit_disabled_rejects() {
+        writeBehind = create(false, 10, 5);
+
+        assertFalse(writeBehind.isEnabled());
+        assertThrows(RejectedExecutionException.class, () -> writeBehind.submit(bid("1.00")));
+    }
+}
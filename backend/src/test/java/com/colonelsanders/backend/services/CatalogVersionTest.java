@@ -0,0 +1,58 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Bid;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.events.BidAcceptedEvent;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class CatalogVersionTest {
+
+    private final ProductReadCache productReadCache = mock(ProductReadCache.class);
+    private final CatalogVersion catalogVersion = new CatalogVersion(productReadCache);
+
+    private static ProductChangedEvent changed(long id) {
+        Product product = new Product();
+        product.setId(id);
+        return new ProductChangedEvent(product);
+    }
+
+    @Test
+    void productChange_movesBothTags() {
+        String products = catalogVersion.productsETag("json");
+        String productsAndBids = catalogVersion.productsAndBidsETag("json");
+
+        catalogVersion.onProductChanged(changed(1L));
+
+        assertNotEquals(products, catalogVersion.productsETag("json"));
+        assertNotEquals(productsAndBids, catalogVersion.productsAndBidsETag("json"));
+    }
+
+    @Test
+    void acceptedBid_onlyMovesTheBidAwareTag() {
+        String products = catalogVersion.productsETag("json");
+        String productsAndBids = catalogVersion.productsAndBidsETag("json");
+
+        catalogVersion.onBidAccepted(new BidAcceptedEvent(new Bid()));
+
+        assertEquals(products, catalogVersion.productsETag("json"));
+        assertNotEquals(productsAndBids, catalogVersion.productsAndBidsETag("json"));
+    }
+
+    @Test
+    void tagsAreWeakETagsNamingTheRepresentation() {
+        assertTrue(catalogVersion.productsETag("json").matches("W/\"[0-9a-z]+-0-json\""));
+        assertTrue(catalogVersion.productsAndBidsETag("cbor").matches("W/\"[0-9a-z]+-0-0-cbor\""));
+    }
+
+    @Test
+    void productChange_invalidatesTheCacheForThatProduct() {
+        catalogVersion.onProductChanged(changed(5L));
+
+        verify(productReadCache).invalidate(5L);
+    }
+}
@@ -0,0 +1,207 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.repositories.BidRepository;
+import com.colonelsanders.backend.dto.BidDto;
+import com.colonelsanders.backend.dto.ExportJobDto;
+import com.colonelsanders.backend.dto.ProductFacetsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ExportJobsTest {
+
+    @Mock
+    private ProductCsvExporter productCsvExporter;
+
+    @Mock
+    private BidService bidService;
+
+    @Mock
+    private ProductFacets productFacets;
+
+    @Mock
+    private BidRepository bidRepository;
+
+    @TempDir
+    Path directory;
+
+    private final List<ExportJobs> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(ExportJobs::shutdown);
+    }
+
+    private ExportJobs open(int maxActive, long ttlMillis) throws IOException {
+        ExportJobs exports = new ExportJobs(productCsvExporter, bidService, productFacets, bidRepository,
+                JsonMapper.builder().build(), directory.toString(), 1, maxActive, ttlMillis);
+        exports.open();
+        opened.add(exports);
+        return exports;
+    }
+
+    private ExportJobDto awaitFinished(ExportJobs exports, String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (System.currentTimeMillis() < deadline) {
+            ExportJobDto job = exports.get(id).orElseThrow();
+            if (job.getFinishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(5);
+        }
+        fail("export " + id + " did not finish");
+        return null;
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void productsExport_writesGzippedCsvAndReportsRows() throws Exception {
+        when(productFacets.get()).thenReturn(new ProductFacetsDto(2, 2, 0, List.of()));
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            LongConsumer progress = invocation.getArgument(1);
+            out.write("header\nrow 1\nrow 2\n".getBytes(StandardCharsets.UTF_8));
+            progress.accept(1);
+            progress.accept(2);
+            return 2L;
+        }).when(productCsvExporter).exportAll(any(), any());
+        ExportJobs exports = open(4, 60_000);
+
+        ExportJobDto started = exports.start(ExportJobs.Type.PRODUCTS);
+        assertEquals("products", started.getType());
+        ExportJobDto job = awaitFinished(exports, started.getId());
+
+        assertEquals("DONE", job.getStatus());
+        assertEquals(2, job.getRows());
+        assertEquals(2L, job.getTotalRows());
+        assertEquals("/api/exports/" + job.getId() + "/download", job.getDownloadUrl());
+        Path file = exports.file(job.getId()).orElseThrow();
+        assertTrue(file.getFileName().toString().endsWith(".csv.gz"));
+        assertEquals(job.getSizeBytes(), Files.size(file));
+        assertEquals("header\nrow 1\nrow 2\n", gunzip(file));
+    }
+
+    @Test
+    void bidsExport_writesOneJsonObjectPerLine() throws Exception {
+        when(bidRepository.count()).thenReturn(2L);
+        doAnswer(invocation -> {
+            Consumer<BidDto> consumer = invocation.getArgument(1);
+            Timestamp createdAt = new Timestamp(1_700_000_000_000L);
+            consumer.accept(new BidDto(1L, 10L, 20L, "a@example.com", new BigDecimal("5.00"), createdAt));
+            consumer.accept(new BidDto(2L, 10L, 21L, "b@example.com", new BigDecimal("6.00"), createdAt));
+            return null;
+        }).when(bidService).streamBids(any(), any());
+        ExportJobs exports = open(4, 60_000);
+
+        ExportJobDto job = awaitFinished(exports, exports.start(ExportJobs.Type.BIDS).getId());
+
+        assertEquals("DONE", job.getStatus());
+        assertEquals(2, job.getRows());
+        String[] lines = gunzip(exports.file(job.getId()).orElseThrow()).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"id\":2"));
+    }
+
+    @Test
+    void failedExport_hasNoFile() throws Exception {
+        when(productFacets.get()).thenReturn(new ProductFacetsDto(0, 0, 0, List.of()));
+        when(productCsvExporter.exportAll(any(), any())).thenThrow(new IllegalStateException("database gone"));
+        ExportJobs exports = open(4, 60_000);
+
+        ExportJobDto job = awaitFinished(exports, exports.start(ExportJobs.Type.PRODUCTS).getId());
+
+        assertEquals("FAILED", job.getStatus());
+        assertNotNull(job.getError());
+        assertNull(job.getDownloadUrl());
+        assertTrue(exports.file(job.getId()).isEmpty());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void start_rejectsWhenTooManyExportsAreActive() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(productFacets.get()).thenReturn(new ProductFacetsDto(0, 0, 0, List.of()));
+        doAnswer(invocation -> {
+            release.await(2, TimeUnit.SECONDS);
+            return 0L;
+        }).when(productCsvExporter).exportAll(any(), any());
+        ExportJobs exports = open(1, 60_000);
+
+        ExportJobDto first = exports.start(ExportJobs.Type.PRODUCTS);
+        assertThrows(IllegalStateException.class, () -> exports.start(ExportJobs.Type.PRODUCTS));
+
+        release.countDown();
+        awaitFinished(exports, first.getId());
+        assertNotNull(exports.start(ExportJobs.Type.PRODUCTS));
+    }
+
+    @Test
+    void evictExpired_dropsFinishedJobsAndTheirFiles() throws Exception {
+        when(productFacets.get()).thenReturn(new ProductFacetsDto(0, 0, 0, List.of()));
+        when(productCsvExporter.exportAll(any(), any())).thenReturn(0L);
+        ExportJobs exports = open(4, 0);
+
+        ExportJobDto job = awaitFinished(exports, exports.start(ExportJobs.Type.PRODUCTS).getId());
+        Path file = exports.file(job.getId()).orElseThrow();
+
+        exports.evictExpired();
+
+        assertTrue(exports.get(job.getId()).isEmpty());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void open_deletesFilesLeftByAPreviousRun() throws Exception {
+        Path leftover = Files.writeString(directory.resolve("export-old.csv.gz.part"), "partial");
+        Path unrelated = Files.writeString(directory.resolve("notes.txt"), "keep");
+
+        open(4, 60_000);
+
+        assertFalse(Files.exists(leftover));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    @Test
+    void parseType_isCaseInsensitiveAndRejectsUnknownTypes() {
+        assertEquals(ExportJobs.Type.BIDS, ExportJobs.Type.parse("bids"));
+        assertEquals(ExportJobs.Type.PRODUCTS, ExportJobs.Type.parse("PRODUCTS"));
+        assertThrows(IllegalArgumentException.class, () -> ExportJobs.Type.parse("users"));
+        assertThrows(IllegalArgumentException.class, () -> ExportJobs.Type.parse(null));
+    }
+}
@@ -0,0 +1,128 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.AppUser;
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.models.ProductType;
+import com.colonelsanders.backend.database.models.Role;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the full CSV export: time to the first byte, total time and rows
+ * per second, writing into a stream that only counts bytes. Runs against the
+ * embedded database; excluded from the regular test run, use
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Import(ProductCsvExporter.class)
+public class ProductCsvExporterBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int BIDDERS = 1000;
+    private static final String[] TYPES = {"Laptop", "Phone", "Tablet", "Monitor", "Camera", "Printer", "Router", "Watch"};
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductCsvExporter exporter;
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000, 1_000_000})
+    void exportAll_firstByteAndThroughput(int products) throws Exception {
+        insert(products);
+
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+        long rows = exporter.exportAll(out);
+        double totalMillis = (System.nanoTime() - start) / 1e6;
+        double firstByteMillis = (out.firstByteAt - start) / 1e6;
+
+        assertEquals(products, rows);
+        System.out.printf("CSV export of %d products: first byte after %.1f ms, %d bytes in %.0f ms (%.0f rows/s)%n",
+                products, firstByteMillis, out.bytes, totalMillis, rows / (totalMillis / 1000));
+    }
+
+    private void insert(int products) {
+        List<ProductType> types = new ArrayList<>(TYPES.length);
+        for (String name : TYPES) {
+            ProductType type = new ProductType();
+            type.setName(name);
+            entityManager.persist(type);
+            types.add(type);
+        }
+        List<Long> bidders = new ArrayList<>(BIDDERS);
+        for (int i = 0; i < BIDDERS; i++) {
+            AppUser user = new AppUser();
+            user.setEmail("bidder" + i + "@example.com");
+            user.setPassword("x");
+            user.setRole(Role.USER);
+            entityManager.persist(user);
+            bidders.add(user.getId());
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setProductType(types.get(i % types.size()));
+            product.setModel("Model " + i);
+            product.setDescription("Refurbished, " + (i % 2000) + " cycles");
+            product.setSerial("SN" + (100_000_000 + i));
+            product.setClosed(i % 3 == 0);
+            product.setStartingPrice(BigDecimal.valueOf(1000 + i % 5000, 2));
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            entityManager.persist(product);
+            if ((i + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                types.replaceAll(type -> entityManager.getReference(ProductType.class, type.getId()));
+            }
+        }
+        entityManager.flush();
+        // the bid columns are only written by update statements, as BidStore does
+        entityManager.createQuery("update Product p set p.highestBidPrice = p.startingPrice + 10, "
+                        + "p.highestBidderId = :firstBidder + mod(p.id, :bidders) where mod(p.id, 2) = 0")
+                .setParameter("firstBidder", bidders.getFirst())
+                .setParameter("bidders", (long) BIDDERS)
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long firstByteAt;
+
+        @Override
+        public void write(int b) {
+            count(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count(len);
+        }
+
+        private void count(int len) {
+            if (bytes == 0 && len > 0) {
+                firstByteAt = System.nanoTime();
+            }
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.repositories.ProductExportRow;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductCsvExporterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductCsvExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new ProductCsvExporter(productRepository);
+    }
+
+    @Test
+    void exportAll_writesHeaderAndOneLinePerRow_andClosesTheStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(productRepository.streamExportRows()).thenReturn(Stream.of(
+                new ProductExportRow("Laptop", "X1", "SN1", "Good", new BigDecimal("100.00"),
+                        "bidder@example.com", new BigDecimal("150.50")),
+                new ProductExportRow(null, "P2", "SN2", null, null, null, null)
+        ).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exporter.exportAll(out);
+
+        assertEquals(2, rows);
+        assertEquals(ProductCsvExporter.HEADER
+                        + "Laptop, X1, SN1, Good, 100.00, bidder@example.com, 150.50\n"
+                        + ", P2, SN2, , , , \n",
+                out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void export_quotesValuesWithCommasQuotesAndNewlines() {
+        String csv = exporter.export(new ProductExportRow("Laptop", "X1, \"Carbon\"", "SN1", "line one\nline two",
+                new BigDecimal("100"), null, null));
+
+        assertEquals(ProductCsvExporter.HEADER
+                        + "Laptop, \"X1, \"\"Carbon\"\"\", SN1, \"line one\nline two\", 100, , \n",
+                csv);
+    }
+}
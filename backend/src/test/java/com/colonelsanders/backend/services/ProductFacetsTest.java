@@ -0,0 +1,124 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.models.ProductType;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.database.repositories.ProductTypeRepository;
+import com.colonelsanders.backend.dto.ProductFacetsDto;
+import com.colonelsanders.backend.dto.ProductTypeFacetDto;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ProductFacetsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTypeRepository productTypeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductFacets facets;
+
+    private final ProductType laptop = type(1L, "Laptop");
+    private final ProductType phone = type(2L, "Phone");
+
+    @BeforeEach
+    void setUp() {
+        facets = new ProductFacets(productRepository, productTypeRepository, transactionManager);
+        when(productTypeRepository.findAll()).thenReturn(List.of(laptop, phone));
+    }
+
+    private static ProductType type(long id, String name) {
+        ProductType type = new ProductType();
+        type.setId(id);
+        type.setName(name);
+        return type;
+    }
+
+    private static ProductRepository.FacetKey facetKey(long id, Long typeId, boolean closed) {
+        return new ProductRepository.FacetKey() {
+            public Long getId() { return id; }
+            public Long getTypeId() { return typeId; }
+            public Boolean getClosed() { return closed; }
+        };
+    }
+
+    private static Product product(long id, ProductType type, boolean closed) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductType(type);
+        product.setClosed(closed);
+        return product;
+    }
+
+    private void rebuild(ProductRepository.FacetKey... products) {
+        when(productRepository.streamFacetKeys()).thenReturn(Stream.of(products));
+        facets.rebuild();
+    }
+
+    @Test
+    void rebuild_countsPerTypeAndState() {
+        rebuild(facetKey(1L, 1L, false), facetKey(2L, 1L, false), facetKey(3L, 1L, true),
+                facetKey(4L, 2L, true), facetKey(5L, null, false));
+
+        ProductFacetsDto result = facets.get();
+        assertEquals(5, result.getTotal());
+        assertEquals(3, result.getOpen());
+        assertEquals(2, result.getClosed());
+        assertEquals(List.of(
+                new ProductTypeFacetDto(1L, "Laptop", 2, 1),
+                new ProductTypeFacetDto(2L, "Phone", 0, 1),
+                new ProductTypeFacetDto(null, null, 1, 0)), result.getTypes());
+    }
+
+    @Test
+    void close_movesOneCountFromOpenToClosed() {
+        rebuild(facetKey(1L, 1L, false), facetKey(2L, 1L, false));
+
+        facets.onProductChanged(new ProductChangedEvent(product(1L, laptop, true)));
+
+        ProductTypeFacetDto laptops = facets.get().getTypes().get(0);
+        assertEquals(1, laptops.getOpen());
+        assertEquals(1, laptops.getClosed());
+        assertEquals(2, facets.get().getTotal());
+    }
+
+    @Test
+    void import_addsNewProducts_andIgnoresUnchangedOnes() {
+        rebuild(facetKey(1L, 1L, false));
+
+        facets.onProductChanged(new ProductChangedEvent(product(1L, laptop, false)));
+        facets.onProductChanged(new ProductChangedEvent(product(2L, type(3L, "Tablet"), false)));
+
+        ProductFacetsDto result = facets.get();
+        assertEquals(2, result.getTotal());
+        assertEquals(new ProductTypeFacetDto(3L, "Tablet", 1, 0), result.getTypes().get(1));
+    }
+
+    @Test
+    void typeChange_dropsEmptyFacet() {
+        rebuild(facetKey(1L, 1L, false));
+
+        facets.onProductChanged(new ProductChangedEvent(product(1L, phone, false)));
+
+        assertEquals(List.of(new ProductTypeFacetDto(2L, "Phone", 1, 0)), facets.get().getTypes());
+    }
+}
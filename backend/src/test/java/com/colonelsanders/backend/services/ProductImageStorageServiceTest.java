@@ -1,6 +1,7 @@
 package com.colonelsanders.backend.services;
 
 import com.colonelsanders.backend.database.models.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.minio.BucketExistsArgs;
 import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.MakeBucketArgs;
@@ -10,11 +11,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -24,13 +27,13 @@ public class ProductImageStorageServiceTest {
     @Mock
     private MinioClient minioClient;
 
-    @InjectMocks
     private ProductImageStorageService service;
 
     @BeforeEach
     void setup() {
         // set bucket name and expiry via constructor injection, reflection not needed because fields are final
-        service = new ProductImageStorageService(minioClient, "test-bucket", 60);
+        service = new ProductImageStorageService(minioClient, minioClient, "test-bucket", 60, 100,
+                new SimpleMeterRegistry());
     }
 
     @Test
@@ -78,7 +81,6 @@ public class ProductImageStorageServiceTest {
 
     @Test
     void getPresignedUrl_validKey_invokesMinio() throws Exception {
-        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(true);
         when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class))).thenReturn("http://url");
 
         String result = service.getPresignedUrl("somekey");
@@ -88,4 +90,37 @@ public class ProductImageStorageServiceTest {
         verify(minioClient).getPresignedObjectUrl(captor.capture());
         assertEquals("test-bucket", captor.getValue().bucket());
     }
+
+    @Test
+    void getPresignedUrl_sameKey_isSignedOnce() throws Exception {
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class))).thenReturn("http://url");
+
+        assertEquals("http://url", service.getPresignedUrl("somekey"));
+        assertEquals("http://url", service.getPresignedUrl("somekey"));
+
+        verify(minioClient, times(1)).getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class));
+    }
+
+    @Test
+    void getPresignedUrl_expiredEntry_isSignedAgain() throws Exception {
+        // a zero expiry leaves the cache entries no time to live
+        service = new ProductImageStorageService(minioClient, minioClient, "test-bucket", 0, 100,
+                new SimpleMeterRegistry());
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class))).thenReturn("http://url");
+
+        service.getPresignedUrl("somekey");
+        service.getPresignedUrl("somekey");
+
+        verify(minioClient, times(2)).getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class));
+    }
+
+    @Test
+    void getPresignedUrls_signsEachDistinctKeyOnce() throws Exception {
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class))).thenReturn("http://url");
+
+        Map<String, String> urls = service.getPresignedUrls(Arrays.asList("a", "b", "a", null, " "));
+
+        assertEquals(Map.of("a", "http://url", "b", "http://url"), urls);
+        verify(minioClient, times(2)).getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class));
+    }
 }
@@ -11,7 +11,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
@@ -29,6 +31,12 @@ public class ProductImportServiceTest {
     @Mock
     private ProductTypeRepository productTypeRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ProductImportService importService;
 
@@ -59,9 +67,30 @@ public class ProductImportServiceTest {
         assertEquals(1, result.getProcessed());
         assertEquals(1, result.getCreated());
         assertEquals(0, result.getFailed());
+        assertFalse(result.isPartial());
         assertTrue(result.getErrors().isEmpty());
     }
 
+    @Test
+    void importCsv_someRowsFail_keepsTheOthersAndIsPartial() throws Exception {
+        ProductType type = new ProductType();
+        type.setName("Widget");
+        when(productTypeRepository.findByNameIgnoreCase("Widget")).thenReturn(Optional.of(type));
+        when(productRepository.findBySerial("123")).thenReturn(Optional.empty());
+        when(productRepository.save(org.mockito.ArgumentMatchers.any(Product.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        String csv = "Type,model,sn,desc,st_price\n" +
+                "Widget,A,123,,5.00\n" +
+                "Widget,B,456,,not a price\n";
+
+        ProductImportResultDto result = importService.importCsv(new MockMultipartFile("file", "products.csv",
+                "text/csv", csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.isPartial());
+    }
+
     @Test
     void importCsv_missingHeader_throws() {
         MockMultipartFile file = new MockMultipartFile("file", "bad.csv",
@@ -0,0 +1,96 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.dto.CursorPageDto;
+import com.colonelsanders.backend.dto.ProductDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductReadCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductReadCache cache = new ProductReadCache(meterRegistry, 60_000, 100, 100);
+
+    private static ProductDto dto(long id) {
+        return ProductDto.builder().id(id).model("model-" + id).build();
+    }
+
+    private static CursorPageDto<ProductDto> page(long... ids) {
+        List<ProductDto> items = new ArrayList<>();
+        for (long id : ids) {
+            items.add(dto(id));
+        }
+        return CursorPageDto.<ProductDto>builder().items(items).build();
+    }
+
+    @Test
+    void getProduct_loadsOnceUntilTheProductChanges() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getProduct(1L, () -> { loads.incrementAndGet(); return Optional.of(dto(1)); });
+        cache.getProduct(1L, () -> { loads.incrementAndGet(); return Optional.of(dto(1)); });
+        assertEquals(1, loads.get());
+
+        cache.invalidate(2L);
+        cache.getProduct(1L, () -> { loads.incrementAndGet(); return Optional.of(dto(1)); });
+        assertEquals(1, loads.get());
+
+        cache.invalidate(1L);
+        cache.getProduct(1L, () -> { loads.incrementAndGet(); return Optional.of(dto(1)); });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getProduct_missingProductIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertTrue(cache.getProduct(1L, () -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        assertTrue(cache.getProduct(1L, () -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void anyProductChange_dropsEveryPage() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getPage("a", () -> { loads.incrementAndGet(); return page(1, 2); });
+        cache.getPage("b", () -> { loads.incrementAndGet(); return page(3); });
+        cache.getPage("a", () -> { loads.incrementAndGet(); return page(1, 2); });
+        assertEquals(2, loads.get());
+
+        cache.invalidate(7L);
+        cache.getPage("a", () -> { loads.incrementAndGet(); return page(1, 2); });
+        cache.getPage("b", () -> { loads.incrementAndGet(); return page(3); });
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void loadRacingWithAChange_isNotCached() {
+        // the product changes while the page is being read from the database
+        cache.getPage("a", () -> {
+            cache.invalidate(1L);
+            return page(1);
+        });
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.getPage("a", () -> { loads.incrementAndGet(); return page(1); });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void publishesHitAndMissCounters() {
+        cache.getProduct(1L, () -> Optional.of(dto(1)));
+        cache.getProduct(1L, () -> Optional.of(dto(1)));
+
+        assertEquals(1.0, meterRegistry.get("products.cache.hits").tag("cache", "product").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("products.cache.misses").tag("cache", "product").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("products.cache.entries").tag("cache", "product").gauge().value());
+    }
+}
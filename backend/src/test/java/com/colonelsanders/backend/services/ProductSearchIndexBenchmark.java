@@ -0,0 +1,65 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures {@link ProductSearchIndex#search} over a 500k product catalog.
+ * Excluded from the regular test run; use {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+public class ProductSearchIndexBenchmark {
+
+    private static final int PRODUCTS = 500_000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 100;
+    private static final String[] TYPES = {"Laptop", "Phone", "Tablet", "Monitor", "Camera", "Printer", "Router", "Watch"};
+    private static final String[] MODELS = {"ThinkPad", "Latitude", "MacBook", "Galaxy", "Pixel", "iPad", "Surface", "Zenbook"};
+    private static final String[] QUERIES = {"thinkpad x12", "sn1000", "laptop 16gb", "galaxy", "refurb", "camera memory 64gb"};
+
+    @Test
+    void search_staysInSingleDigitMilliseconds() {
+        Random random = new Random(42);
+        List<ProductRepository.SearchText> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            rows.add(ProductSearchIndexTest.searchText(i + 1,
+                    MODELS[random.nextInt(MODELS.length)] + " X" + random.nextInt(1000),
+                    "refurbished with " + (4 << random.nextInt(5)) + "GB memory, " + random.nextInt(2000) + " cycles",
+                    "SN" + (100_000_000 + i),
+                    TYPES[random.nextInt(TYPES.length)]));
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.streamSearchText()).thenReturn(rows.stream());
+        ProductSearchIndex index = new ProductSearchIndex(productRepository, mock(PlatformTransactionManager.class));
+        index.rebuild();
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (String query : QUERIES) {
+                index.search(query, 20);
+            }
+        }
+
+        for (String query : QUERIES) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                found = index.search(query, 20).size();
+            }
+            double millis = (System.nanoTime() - start) / (MEASURED_ROUNDS * 1e6);
+            System.out.printf("ProductSearchIndex.search(\"%s\"): %.3f ms, %d hits%n", query, millis, found);
+
+            assertTrue(found > 0, "no hits for " + query);
+            assertTrue(millis < 10, query + " took " + millis + " ms");
+        }
+    }
+}
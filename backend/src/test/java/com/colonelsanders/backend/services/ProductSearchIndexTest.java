@@ -0,0 +1,108 @@
+package com.colonelsanders.backend.services;
+
+import com.colonelsanders.backend.database.models.Product;
+import com.colonelsanders.backend.database.models.ProductType;
+import com.colonelsanders.backend.database.repositories.ProductRepository;
+import com.colonelsanders.backend.events.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository, transactionManager);
+        when(productRepository.streamSearchText()).thenReturn(Stream.of(
+                searchText(1L, "ThinkPad X1", "14-inch business laptop", "SN-1001", "Laptop"),
+                searchText(2L, "Galaxy S24", "Phone with 256GB storage", "SN-2002", "Phone"),
+                searchText(3L, "ThinkPad T14", null, "SN-3003", "Laptop")));
+        index.rebuild();
+    }
+
+    static ProductRepository.SearchText searchText(long id, String model, String description, String serial, String type) {
+        return new ProductRepository.SearchText() {
+            public Long getId() { return id; }
+            public String getModel() { return model; }
+            public String getDescription() { return description; }
+            public String getSerial() { return serial; }
+            public String getTypeName() { return type; }
+        };
+    }
+
+    private static Product product(long id, String model, String description, String serial, String type) {
+        ProductType productType = new ProductType();
+        productType.setName(type);
+        Product product = new Product();
+        product.setId(id);
+        product.setModel(model);
+        product.setDescription(description);
+        product.setSerial(serial);
+        product.setProductType(productType);
+        return product;
+    }
+
+    @Test
+    void terms_areLowerCasedSortedAndDistinct() {
+        assertArrayEquals(new String[]{"1001", "laptop", "sn", "thinkpad", "x1"},
+                ProductSearchIndex.terms("ThinkPad X1", null, "SN-1001", "Laptop laptop"));
+    }
+
+    @Test
+    void search_matchesEveryFieldByPrefix() {
+        assertEquals(List.of(1L, 3L), index.search("think", 10));
+        assertEquals(List.of(2L), index.search("256", 10));
+        assertEquals(List.of(3L), index.search("sn-30", 10));
+        assertEquals(List.of(2L), index.search("PHONE", 10));
+    }
+
+    @Test
+    void search_requiresEveryToken() {
+        assertEquals(List.of(1L), index.search("thinkpad business", 10));
+        assertEquals(List.of(), index.search("thinkpad galaxy", 10));
+    }
+
+    @Test
+    void search_respectsLimitAndIgnoresPunctuationOnlyQueries() {
+        assertEquals(List.of(1L), index.search("laptop", 1));
+        assertEquals(List.of(), index.search(" -- ", 10));
+    }
+
+    @Test
+    void productChanged_reindexesText() {
+        index.onProductChanged(new ProductChangedEvent(product(3L, "Latitude 7440", null, "SN-3003", "Laptop")));
+
+        assertEquals(List.of(1L), index.search("thinkpad", 10));
+        assertEquals(List.of(3L), index.search("latitude", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void productChanged_addsNewProducts() {
+        index.onProductChanged(new ProductChangedEvent(product(9L, "Pixel 9", "Phone", "SN-9009", "Phone")));
+
+        assertEquals(List.of(2L, 9L), index.search("phone", 10));
+        assertEquals(4, index.size());
+    }
+}
@@ -0,0 +1,45 @@
+package com.colonelsanders.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+
+    @Test
+    void add_rejectsEntriesThatAreAlreadyDue() {
+        long now = System.currentTimeMillis();
+        TimingWheel wheel = new TimingWheel(1, 8, now, new DelayQueue<>());
+
+        assertFalse(wheel.add(new TimingWheel.Entry(1L, now - 10)));
+        assertTrue(wheel.add(new TimingWheel.Entry(2L, now + 10)));
+    }
+
+    @Test
+    void entriesCascadeFromOverflowLevelsAndFireAfterTheirExpiration() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        DelayQueue<TimingWheel.Bucket> queue = new DelayQueue<>();
+        // 4 buckets of 1 ms per level, so 70 ms is three levels up
+        TimingWheel wheel = new TimingWheel(1, 4, now, queue);
+        wheel.add(new TimingWheel.Entry(1L, now + 70));
+        wheel.add(new TimingWheel.Entry(2L, now + 3));
+
+        List<Long> fired = new ArrayList<>();
+        while (fired.size() < 2) {
+            TimingWheel.Bucket bucket = queue.take();
+            wheel.advanceClock(bucket.getExpiration());
+            bucket.flush(entry -> {
+                if (!wheel.add(entry)) {
+                    assertTrue(System.currentTimeMillis() >= entry.expirationMs());
+                    fired.add(entry.key());
+                }
+            });
+        }
+
+        assertEquals(List.of(2L, 1L), fired);
+    }
+}
@@ -1,12 +1,13 @@
 import { useEffect, useMemo, useState } from "react";
 import { ProductCard } from "./ProductCard";
 import { auctionsService } from "../services/auctionsService";
-import type { Auction } from "../services/auctionsService";
+import type { Auction, AuctionPageQuery } from "../services/auctionsService";
 import { authService } from "../services/authService";
 
 const FALLBACK_IMAGE = "/images/default-image.png";
 const API_BASE_URL = "http://localhost:8080/api";
 const AUCTION_GALLERY_STORAGE_KEY = "auction-image-gallery";
+const PAGE_SIZE = 24;
 
 const mergeImages = (...imageGroups: (string[] | undefined)[]) => {
   const allImages = imageGroups.flatMap((group) => group ?? []).map((image) => image.trim()).filter((image) => image.length > 0);
@@ -58,7 +59,9 @@ const getAuctionImages = (auction: Auction) => {
 
 export default function AllAuctions() {
   const [auctions, setAuctions] = useState<Auction[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [isLoading, setIsLoading] = useState(true);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
 
   const [selectedType, setSelectedType] = useState("all");
@@ -81,24 +84,58 @@ export default function AllAuctions() {
   const canManageImports = isAdmin;
   const canCloseAuctions = isAdmin;
 
+  // status and sort are applied by the server, so each page comes back already filtered and ordered
+  const pageQuery = useMemo((): AuctionPageQuery => {
+    const query: AuctionPageQuery = { limit: PAGE_SIZE };
+    if (selectedStatus !== "all") {
+      query.closed = selectedStatus === "closed";
+    }
+    if (sortOrder !== "none") {
+      query.sort = "startingPrice";
+      query.direction = sortOrder === "lowest" ? "asc" : "desc";
+    }
+    return query;
+  }, [selectedStatus, sortOrder]);
+
   const loadAuctions = async () => {
     try {
       setError(null);
-      const data = await auctionsService.getAuctions();
-      setAuctions(data);
+      const page = await auctionsService.getAuctionPage(pageQuery);
+      setAuctions(page.items);
+      setNextCursor(page.nextCursor);
     } catch (loadError) {
       setError(loadError instanceof Error ? loadError.message : "Failed to load auctions");
     }
   };
 
+  const loadMoreAuctions = async () => {
+    if (!nextCursor) {
+      return;
+    }
+
+    try {
+      setIsLoadingMore(true);
+      setError(null);
+      const page = await auctionsService.getAuctionPage({ ...pageQuery, cursor: nextCursor });
+      setAuctions((current) => [...current, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (loadError) {
+      setError(loadError instanceof Error ? loadError.message : "Failed to load auctions");
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     let isMounted = true;
 
     const loadAuctionsOnMount = async () => {
       try {
-        const data = await auctionsService.getAuctions();
+        setIsLoading(true);
+        const page = await auctionsService.getAuctionPage(pageQuery);
         if (isMounted) {
-          setAuctions(data);
+          setAuctions(page.items);
+          setNextCursor(page.nextCursor);
           setError(null);
         }
       } catch (loadError) {
@@ -117,7 +154,7 @@ export default function AllAuctions() {
     return () => {
       isMounted = false;
     };
-  }, []);
+  }, [pageQuery]);
 
   const availableTypes = useMemo(
     () =>
@@ -189,29 +226,13 @@ export default function AllAuctions() {
       );
     }
 
-    if (selectedStatus === "open") {
-      filtered = filtered.filter((auction) => !auction.closed);
-    }
-
-    if (selectedStatus === "closed") {
-      filtered = filtered.filter((auction) => auction.closed);
-    }
-
     filtered = filtered.filter(
       (auction) =>
         auction.startingPrice >= effectiveMinPrice && auction.startingPrice <= effectiveMaxPrice
     );
 
-    if (sortOrder === "lowest") {
-      filtered.sort((a, b) => a.startingPrice - b.startingPrice);
-    }
-
-    if (sortOrder === "highest") {
-      filtered.sort((a, b) => b.startingPrice - a.startingPrice);
-    }
-
     return filtered;
-  }, [auctions, selectedType, selectedStatus, effectiveMinPrice, effectiveMaxPrice, sortOrder]);
+  }, [auctions, selectedType, effectiveMinPrice, effectiveMaxPrice]);
 
   const selectableVisibleAuctionIds = useMemo(
     () => filteredAuctions.filter((auction) => !auction.closed).map((auction) => auction.id),
@@ -334,7 +355,8 @@ export default function AllAuctions() {
 
       const result = await auctionsService.importAuctionsCsv(auctionsCsvFile);
       setImportMessage(
-        `Processed: ${result.processed}, Created: ${result.created}, Updated: ${result.updated}, Failed: ${result.failed}`
+        `Processed: ${result.processed}, Created: ${result.created}, Updated: ${result.updated}, Failed: ${result.failed}` +
+          (result.partial ? " (partially imported: the other rows were saved)" : "")
       );
       setAuctionsCsvFile(null);
       await loadAuctions();
@@ -500,10 +522,23 @@ export default function AllAuctions() {
           ))}
         </div>
 
-        {!isLoading && filteredAuctions.length === 0 && (
+        {!isLoading && filteredAuctions.length === 0 && !nextCursor && (
           <p className="text-gray-500 mt-6">No auctions match the selected filters.</p>
         )}
 
+        {!isLoading && nextCursor && (
+          <div className="mt-8 flex justify-center">
+            <button
+              type="button"
+              onClick={loadMoreAuctions}
+              disabled={isLoadingMore}
+              className="h-11 bg-white text-teal-700 border border-teal-700 px-8 text-base rounded-md hover:bg-teal-50 disabled:opacity-50 disabled:cursor-not-allowed"
+            >
+              {isLoadingMore ? "Loading..." : "Load more"}
+            </button>
+          </div>
+        )}
+
         {canManageImports && (
           <section className="mt-10 bg-white p-6 rounded-2xl shadow-md w-full">
             <div className="flex flex-col sm:flex-row sm:items-center justify-center gap-3 max-w-2xl mx-auto">
@@ -4,6 +4,8 @@ import { auctionsService } from '../services/auctionsService';
 import type { Auction } from '../services/auctionsService';
 
 const FALLBACK_IMAGE = '/images/HeroGraphic.png';
+// the carousel shows five products picked from the first page
+const PAGE_SIZE = 20;
 
 export default function InventoryDashboard() {
   const location = useLocation();
@@ -16,9 +18,9 @@ export default function InventoryDashboard() {
 
     const loadAuctions = async () => {
       try {
-        const data = await auctionsService.getAuctions();
+        const page = await auctionsService.getAuctionPage({ limit: PAGE_SIZE });
         if (isMounted) {
-          setAuctions(data);
+          setAuctions(page.items);
         }
       } catch (loadError) {
         if (isMounted) {
@@ -23,6 +23,20 @@ export interface Auction {
 	actionEndDate?: string
 }
 
+export interface AuctionPage {
+	items: Auction[]
+	nextCursor: string | null
+}
+
+export interface AuctionPageQuery {
+	sort?: 'id' | 'createdAt' | 'startingPrice'
+	direction?: 'asc' | 'desc'
+	typeId?: number
+	closed?: boolean
+	cursor?: string
+	limit?: number
+}
+
 export interface Bid {
 	id: number
 	productId: number
@@ -36,6 +50,7 @@ export interface AuctionImportResult {
 	created: number
 	updated: number
 	failed: number
+	partial: boolean
 	errors: string[]
 }
 
@@ -68,8 +83,16 @@ async function parseError(response: Response): Promise<never> {
 }
 
 export const auctionsService = {
-	async getAuctions(): Promise<Auction[]> {
-		const response = await fetch(`${API_BASE_URL}/products`, {
+	async getAuctionPage(query: AuctionPageQuery = {}): Promise<AuctionPage> {
+		// image URLs are presigned by the server for the whole page
+		const params = new URLSearchParams({ imageUrls: 'true' })
+		Object.entries(query).forEach(([key, value]) => {
+			if (value !== undefined) {
+				params.set(key, String(value))
+			}
+		})
+
+		const response = await fetch(`${API_BASE_URL}/products?${params}`, {
 			method: 'GET',
 			headers: buildAuthHeaders(),
 			credentials: 'include',
@@ -79,19 +102,15 @@ export const auctionsService = {
 			return parseError(response)
 		}
 
-		const auctions: Auction[] = await response.json()
-		const auctionsWithImageUrls = await Promise.all(
-			auctions.map(async (auction) => ({
-				...auction,
-				imageUrl: await this.getAuctionImageUrl(auction.id),
-			}))
-		)
-
-		return auctionsWithImageUrls
+		const page: AuctionPage = await response.json()
+		return {
+			...page,
+			items: page.items.map((auction) => ({ ...auction, imageUrl: auction.imageUrl ?? null })),
+		}
 	},
 
 	async getAuctionById(id: number): Promise<Auction> {
-		const response = await fetch(`${API_BASE_URL}/products/${id}`, {
+		const response = await fetch(`${API_BASE_URL}/products/${id}?imageUrls=true`, {
 			method: 'GET',
 			headers: buildAuthHeaders(),
 			credentials: 'include',
@@ -102,12 +121,7 @@ export const auctionsService = {
 		}
 
 		const auction: Auction = await response.json()
-		const imageUrl = await this.getAuctionImageUrl(id)
-
-		return {
-			...auction,
-			imageUrl,
-		}
+		return { ...auction, imageUrl: auction.imageUrl ?? null }
 	},
 
 	async getAuctionImageUrl(id: number): Promise<string | null> {
@@ -132,9 +146,8 @@ export const auctionsService = {
 		return payload.imageUrl ?? null
 	},
 
-	async getOpenAuctions(): Promise<Auction[]> {
-		const auctions = await this.getAuctions()
-		return auctions.filter((auction) => !auction.closed)
+	async getOpenAuctions(query: Omit<AuctionPageQuery, 'closed'> = {}): Promise<AuctionPage> {
+		return this.getAuctionPage({ ...query, closed: false })
 	},
 
 	async placeBid(productId: number, price: number): Promise<Bid> {